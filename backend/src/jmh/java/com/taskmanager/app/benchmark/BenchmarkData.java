@@ -0,0 +1,104 @@
+package com.taskmanager.app.benchmark;
+
+import com.taskmanager.app.TaskManagerApplication;
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.domain.User;
+import com.taskmanager.app.dto.TaskBatchResult;
+import com.taskmanager.app.service.ProjectService;
+import com.taskmanager.app.service.TaskService;
+import com.taskmanager.app.service.UserService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Application context on a private in-memory H2 database, seeded with a deterministic dataset.
+ */
+final class BenchmarkData {
+
+    static final int USERS = 100;
+    static final int PROJECTS = 20;
+    private static final int SEED_CHUNK = 10_000;
+
+    final ConfigurableApplicationContext context;
+    final List<Long> userIds = new ArrayList<>();
+    final List<Long> projectIds = new ArrayList<>();
+    final List<Long> taskIds = new ArrayList<>();
+
+    private BenchmarkData(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * {@code overrides} are {@code key=value} pairs taking precedence over application.properties.
+     */
+    static BenchmarkData seed(int taskCount, String... overrides) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false"));
+        for (String override : overrides) {
+            args.add("--" + override);
+        }
+        // Arguments rather than default properties, which application.properties would override
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TaskManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties("logging.level.root=WARN")
+                .run(args.toArray(String[]::new));
+        BenchmarkData data = new BenchmarkData(context);
+        Random random = new Random(42);
+
+        UserService userService = context.getBean(UserService.class);
+        for (int i = 0; i < USERS; i++) {
+            data.userIds.add(userService.createUser(
+                    User.builder().name("User " + i).email("user" + i + "@example.com").build()).getId());
+        }
+        ProjectService projectService = context.getBean(ProjectService.class);
+        for (int i = 0; i < PROJECTS; i++) {
+            data.projectIds.add(projectService.createProject(Project.builder()
+                    .name("Project " + i)
+                    .description("Benchmark project " + i)
+                    .createdBy(User.builder().id(data.userIds.get(i % USERS)).build())
+                    .build()).getId());
+        }
+
+        TaskService taskService = context.getBean(TaskService.class);
+        for (int start = 0; start < taskCount; start += SEED_CHUNK) {
+            List<Task> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = start; i < Math.min(taskCount, start + SEED_CHUNK); i++) {
+                chunk.add(data.randomTask(random, "Seeded task " + i));
+            }
+            for (TaskBatchResult result : taskService.createTasks(chunk)) {
+                data.taskIds.add(result.id());
+            }
+        }
+        return data;
+    }
+
+    Task randomTask(Random random, String title) {
+        TaskStatus[] statuses = TaskStatus.values();
+        Priority[] priorities = Priority.values();
+        return Task.builder()
+                .title(title)
+                .description("Description for " + title)
+                .status(statuses[random.nextInt(statuses.length)])
+                .priority(priorities[random.nextInt(priorities.length)])
+                .dueDate(LocalDate.now().plusDays(random.nextInt(60) - 10))
+                .assignedTo(User.builder().id(userIds.get(random.nextInt(userIds.size()))).build())
+                .project(Project.builder().id(projectIds.get(random.nextInt(projectIds.size()))).build())
+                .build();
+    }
+
+    void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,118 @@
+package com.taskmanager.app.benchmark;
+
+import com.taskmanager.app.TaskManagerApplication;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.dto.BulkStatusUpdate;
+import com.taskmanager.app.repository.TaskFilter;
+import com.taskmanager.app.repository.TaskRepository;
+import com.taskmanager.app.service.DatabaseSnapshotService;
+import com.taskmanager.app.service.TaskService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Startup with snapshot persistence on: the time from launch to a ready context, which restores
+ * {@code tasks} rows from the newest snapshot and, with {@code replay}, re-applies the change log of a bulk
+ * update of one project's tasks (about a twentieth of them) made after it. Every start gets a fresh copy of
+ * the same directory and a fresh in-memory database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class DatabaseRestoreBenchmark {
+
+    @Param({"1000000"})
+    public int tasks;
+
+    @Param({"false", "true"})
+    public boolean replay;
+
+    private Path prepared;
+    private Path dir;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        prepared = Files.createTempDirectory("restore-benchmark");
+        BenchmarkData data = BenchmarkData.seed(tasks,
+                "taskmanager.persistence.enabled=true",
+                "taskmanager.persistence.dir=" + prepared,
+                "taskmanager.persistence.snapshot-interval=PT1H");
+        Path snapshot = data.context.getBean(DatabaseSnapshotService.class).writeSnapshot();
+        if (replay) {
+            data.context.getBean(TaskService.class).updateTaskStatuses(new BulkStatusUpdate(null,
+                    TaskFilter.builder().projectId(data.projectIds.get(0)).build(), TaskStatus.IN_PROGRESS));
+        }
+        String url = data.context.getEnvironment().getProperty("spring.datasource.url");
+        data.close();
+        // The seeded database would otherwise stay in memory next to the restored ones
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            connection.createStatement().execute("SHUTDOWN");
+        }
+        // Leaves the snapshot taken above, with the update only in the log after it. Without the update the
+        // shutdown snapshot has the same sequence number and replaced it, so there is nothing else to drop
+        for (Path other : files(prepared, "snapshot-")) {
+            if (!other.equals(snapshot)) {
+                Files.delete(other);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(prepared);
+    }
+
+    @Setup(Level.Invocation)
+    public void copyDirectory() throws IOException {
+        dir = Files.createTempDirectory("restore-benchmark-run");
+        FileSystemUtils.copyRecursively(prepared, dir);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws IOException {
+        long restored = context.getBean(TaskRepository.class).count();
+        context.close();
+        FileSystemUtils.deleteRecursively(dir);
+        if (restored != tasks) {
+            throw new IllegalStateException("Restored " + restored + " of " + tasks + " tasks");
+        }
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext start() {
+        // Without DB_CLOSE_DELAY the database goes away with the pool when the context closes
+        context = new SpringApplicationBuilder(TaskManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties("logging.level.root=WARN")
+                .run("--spring.datasource.url=jdbc:h2:mem:restore-" + UUID.randomUUID(),
+                        "--spring.jpa.show-sql=false",
+                        "--taskmanager.persistence.enabled=true",
+                        "--taskmanager.persistence.dir=" + dir,
+                        "--taskmanager.persistence.snapshot-interval=PT1H");
+        return context;
+    }
+
+    private static List<Path> files(Path dir, String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+}
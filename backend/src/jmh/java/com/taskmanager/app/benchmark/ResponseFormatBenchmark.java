@@ -0,0 +1,104 @@
+package com.taskmanager.app.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.dto.CursorPage;
+import com.taskmanager.app.dto.TaskView;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding one full listing page (500 task views) per negotiated format, optionally gzipped the way the
+ * server compresses responses. Bytes per response are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    private static final int PAGE_SIZE = 500;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"identity", "gzip"})
+    public String encoding;
+
+    private ObjectMapper objectMapper;
+    private CursorPage<TaskView> page;
+    private int lastSize;
+
+    @Setup
+    public void setUp() {
+        // Same builder setup MessageFormatConfig applies to Boot's mapper builder
+        JsonFactory factory = switch (format) {
+            case "json" -> new JsonFactory();
+            case "cbor" -> new CBORFactory();
+            case "smile" -> SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build();
+            default -> throw new IllegalArgumentException(format);
+        };
+        objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory).build();
+
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int length = 2 + random.nextInt(9); length > 0; length--) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        List<TaskView> items = new ArrayList<>(PAGE_SIZE);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            items.add(new TaskView(id, sentence(random, words, 3 + random.nextInt(6)),
+                    sentence(random, words, 10 + random.nextInt(140)),
+                    TaskStatus.values()[random.nextInt(3)], Priority.values()[random.nextInt(3)],
+                    LocalDate.now().plusDays(random.nextInt(60)), LocalDateTime.now(),
+                    id % 3 == 0 ? null : new TaskView.UserRef(id % 3, "User " + id % 3, "user" + id % 3 + "@example.com"),
+                    id % 4 == 0 ? null : new TaskView.ProjectRef(id % 2, "Project " + id % 2)));
+        }
+        page = new CursorPage<>(items, "Q1JFQVRFRF9BVHwyMDI2LTEwLTE2VDIzOjI1OjA3LjcxMzc2MXwy");
+    }
+
+    private static String sentence(Random random, List<String> words, int length) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sentence.append(i == 0 ? "" : " ").append(words.get(random.nextInt(words.size())));
+        }
+        return sentence.toString();
+    }
+
+    @Benchmark
+    public int encodePage() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        try (OutputStream out = encoding.equals("gzip") ? new GZIPOutputStream(bytes, 8192) : bytes) {
+            objectMapper.writeValue(out, page);
+        }
+        lastSize = bytes.size();
+        return lastSize;
+    }
+
+    @TearDown
+    public void reportSize() {
+        System.out.printf("%n%s/%s: %d bytes per response%n", format, encoding, lastSize);
+    }
+}
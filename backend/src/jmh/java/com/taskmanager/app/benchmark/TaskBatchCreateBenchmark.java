@@ -0,0 +1,66 @@
+package com.taskmanager.app.benchmark;
+
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.dto.TaskBatchResult;
+import com.taskmanager.app.service.TaskService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating {@code size} tasks with one createTasks call, in one transaction with JDBC batching and one lookup
+ * per association, against {@code size} createTask calls, each its own transaction. Both report the time for
+ * all {@code size} tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskBatchCreateBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private BenchmarkData data;
+    private TaskService taskService;
+    private final Random random = new Random(11);
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = BenchmarkData.seed(10_000);
+        taskService = data.context.getBean(TaskService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public List<TaskBatchResult> createTasks() {
+        return taskService.createTasks(newTasks());
+    }
+
+    @Benchmark
+    public List<Task> createTaskEach() {
+        List<Task> created = new ArrayList<>(size);
+        for (Task task : newTasks()) {
+            created.add(taskService.createTask(task));
+        }
+        return created;
+    }
+
+    private List<Task> newTasks() {
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(data.randomTask(random, "Created task " + counter++));
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,63 @@
+package com.taskmanager.app.benchmark;
+
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.dto.CursorPage;
+import com.taskmanager.app.dto.TaskView;
+import com.taskmanager.app.repository.TaskFilter;
+import com.taskmanager.app.repository.TaskSort;
+import com.taskmanager.app.service.TaskService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board listings with Hibernate's second-level and query cache on and off. Nothing writes while measuring,
+ * so with the cache on every call after the first per filter is a hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskQueryCacheBenchmark {
+
+    @Param({"10000", "100000"})
+    public int tasks;
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    private BenchmarkData data;
+    private TaskService taskService;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = BenchmarkData.seed(tasks,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cache,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + cache);
+        taskService = data.context.getBean(TaskService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public CursorPage<TaskView> boardPage() {
+        TaskStatus status = TaskStatus.values()[counter++ % TaskStatus.values().length];
+        return taskService.getTaskPage(TaskFilter.builder().status(status).build(), TaskSort.DUE_DATE, null, 50);
+    }
+
+    @Benchmark
+    public List<Task> getTasksByStatusAndPriority() {
+        TaskStatus status = TaskStatus.values()[counter % TaskStatus.values().length];
+        Priority priority = Priority.values()[counter++ / TaskStatus.values().length % Priority.values().length];
+        return taskService.getTasksByStatusAndPriority(status, priority);
+    }
+}
@@ -0,0 +1,48 @@
+package com.taskmanager.app.benchmark;
+
+import com.taskmanager.app.dto.CursorPage;
+import com.taskmanager.app.dto.TaskView;
+import com.taskmanager.app.repository.TaskFilter;
+import com.taskmanager.app.service.TaskSearchService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution (read the p0.99 row) of a first search page, index lookup plus the page's rows, up to
+ * a million tasks. Every seeded task contains "task", so that query ranks all of them; "42" expands to the
+ * most frequent number terms starting with it; "seeded 4242" is a selective two-term query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class TaskSearchBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int tasks;
+
+    @Param({"task", "42", "seeded 4242"})
+    public String query;
+
+    private BenchmarkData data;
+    private TaskSearchService searchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = BenchmarkData.seed(tasks);
+        searchService = data.context.getBean(TaskSearchService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public CursorPage<TaskView> search() {
+        return searchService.search(query, TaskFilter.none(), null, 20);
+    }
+}
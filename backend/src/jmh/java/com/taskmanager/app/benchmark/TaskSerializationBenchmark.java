@@ -0,0 +1,66 @@
+package com.taskmanager.app.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.domain.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a Task with its assignee and project (and the project's creator), with the same
+ * module setup Spring MVC uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Task task;
+    private List<Task> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        User owner = User.builder().id(1L).name("Owner").email("owner@example.com")
+                .createdAt(LocalDateTime.now()).version(0L).build();
+        User assignee = User.builder().id(2L).name("Assignee").email("assignee@example.com")
+                .createdAt(LocalDateTime.now()).version(0L).build();
+        Project project = Project.builder().id(1L).name("Project").description("Benchmark project")
+                .createdBy(owner).createdAt(LocalDateTime.now()).version(0L).build();
+        task = task(1L, assignee, project);
+        page = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            page.add(task(id, assignee, project));
+        }
+    }
+
+    private static Task task(long id, User assignee, Project project) {
+        return Task.builder().id(id).title("Benchmark task " + id).description("Serialize me")
+                .status(TaskStatus.IN_PROGRESS).priority(Priority.HIGH).dueDate(LocalDate.now())
+                .assignedTo(assignee).project(project).createdAt(LocalDateTime.now()).version(0L).build();
+    }
+
+    @Benchmark
+    public byte[] serializeTask() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(task);
+    }
+
+    @Benchmark
+    public byte[] serializePageOf50() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
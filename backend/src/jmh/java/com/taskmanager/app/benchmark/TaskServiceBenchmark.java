@@ -0,0 +1,64 @@
+package com.taskmanager.app.benchmark;
+
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.service.TaskService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskService write and finder paths against seeded H2 datasets. createTask grows the dataset while it runs,
+ * which is negligible next to the seeded sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int tasks;
+
+    private BenchmarkData data;
+    private TaskService taskService;
+    private final Random random = new Random(7);
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = BenchmarkData.seed(tasks);
+        taskService = data.context.getBean(TaskService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public Task createTask() {
+        return taskService.createTask(data.randomTask(random, "Benchmark task " + counter++));
+    }
+
+    @Benchmark
+    public Task updateTask() {
+        Long id = data.taskIds.get(random.nextInt(data.taskIds.size()));
+        Task update = data.randomTask(random, "Updated task " + counter++);
+        // Reachable from any status, so no update is refused as a DONE -> TODO move
+        update.setStatus(TaskStatus.IN_PROGRESS);
+        return taskService.updateTask(id, update);
+    }
+
+    @Benchmark
+    public List<Task> getTasksByStatusAndPriority() {
+        TaskStatus status = TaskStatus.values()[counter % TaskStatus.values().length];
+        Priority priority = Priority.values()[counter++ / TaskStatus.values().length % Priority.values().length];
+        return taskService.getTasksByStatusAndPriority(status, priority);
+    }
+}
@@ -0,0 +1,38 @@
+package com.taskmanager.app.benchmark;
+
+import com.taskmanager.app.domain.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The status parsing done by {@code TaskController.updateTaskStatus}, including the exception path taken for
+ * an unknown value.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskStatusParsingBenchmark {
+
+    private final Map<String, String> valid = Map.of("status", "IN_PROGRESS");
+    private final Map<String, String> invalid = Map.of("status", "ARCHIVED");
+
+    @Benchmark
+    public TaskStatus parseValid() {
+        return TaskStatus.valueOf(valid.get("status"));
+    }
+
+    @Benchmark
+    public void parseInvalid(Blackhole blackhole) {
+        try {
+            blackhole.consume(TaskStatus.valueOf(invalid.get("status")));
+        } catch (IllegalArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+}
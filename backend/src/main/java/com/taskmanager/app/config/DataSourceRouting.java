@@ -0,0 +1,41 @@
+package com.taskmanager.app.config;
+
+/**
+ * Per-thread override that sends read-only transactions to the primary instead of the replica: set for
+ * requests inside a client's read-your-writes window, and for work that must not see replica lag.
+ * Has no effect when no replica is configured.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * Runs {@code work} with every transaction it opens reading from the primary.
+     */
+    public static void onPrimary(Runnable work) {
+        boolean wasPinned = isPinnedToPrimary();
+        PINNED.set(Boolean.TRUE);
+        try {
+            work.run();
+        } finally {
+            if (!wasPinned) {
+                PINNED.remove();
+            }
+        }
+    }
+
+    static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        PINNED.remove();
+    }
+}
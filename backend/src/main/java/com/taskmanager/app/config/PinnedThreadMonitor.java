@@ -0,0 +1,57 @@
+package com.taskmanager.app.config;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Logs virtual threads that stay pinned to their carrier (blocking inside {@code synchronized}, typically in
+ * JDBC driver or pool code) for longer than the threshold, with the stack that pinned them. Uses an in-process
+ * JFR stream, so no {@code -Djdk.tracePinnedThreads} flag or restart is needed.
+ */
+@Slf4j
+public class PinnedThreadMonitor implements DisposableBean {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+    private static final String SUBMIT_FAILED = "jdk.VirtualThreadSubmitFailed";
+    private static final int MAX_FRAMES = 12;
+
+    private final RecordingStream stream = new RecordingStream();
+
+    public PinnedThreadMonitor(Duration threshold) {
+        stream.enable(PINNED).withThreshold(threshold).withStackTrace();
+        stream.enable(SUBMIT_FAILED).withStackTrace();
+        stream.onEvent(PINNED, this::pinned);
+        stream.onEvent(SUBMIT_FAILED, event -> log.error("Virtual thread could not be scheduled: {}", event));
+        stream.startAsync();
+    }
+
+    private void pinned(RecordedEvent event) {
+        log.warn("Virtual thread {} pinned for {} ms\n{}",
+                event.getThread() == null ? "?" : event.getThread().getJavaName(),
+                event.getDuration().toMillis(), frames(event));
+    }
+
+    private static String frames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "\t(no stack trace)";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .limit(MAX_FRAMES)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+
+    @Override
+    public void destroy() {
+        stream.close();
+    }
+}
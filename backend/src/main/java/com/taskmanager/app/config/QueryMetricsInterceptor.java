@@ -0,0 +1,99 @@
+package com.taskmanager.app.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records per-request SQL statement and entity-load counts for each controller method, and counts requests
+ * that ran the same statement {@code n-plus-one-threshold} or more times.
+ */
+@Slf4j
+class QueryMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final double[] COUNT_BUCKETS = {1, 2, 3, 5, 10, 25, 50, 100, 250};
+
+    private final MeterRegistry registry;
+    private final int nPlusOneThreshold;
+    private final ConcurrentMap<Method, HandlerMeters> meters = new ConcurrentHashMap<>();
+
+    QueryMetricsInterceptor(MeterRegistry registry, int nPlusOneThreshold) {
+        this.registry = registry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            RequestQueryStats.begin();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        record(handler);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        record(handler);
+    }
+
+    private void record(Object handler) {
+        RequestQueryStats stats = RequestQueryStats.end();
+        if (stats == null || !(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        HandlerMeters handlerMeters = meters.computeIfAbsent(handlerMethod.getMethod(),
+                method -> new HandlerMeters(MetricsConfig.handlerName(handlerMethod)));
+        handlerMeters.statements.record(stats.statements());
+        handlerMeters.entityLoads.record(stats.entityLoads());
+        if (stats.maxRepeats() >= nPlusOneThreshold) {
+            handlerMeters.nPlusOne.increment();
+            if (handlerMeters.reported.compareAndSet(false, true)) {
+                log.warn("Possible N+1 in {}: statement ran {} times in one request: {}",
+                        handlerMeters.handler, stats.maxRepeats(), stats.mostRepeated());
+            }
+        }
+    }
+
+    private final class HandlerMeters {
+
+        private final String handler;
+        private final DistributionSummary statements;
+        private final DistributionSummary entityLoads;
+        private final Counter nPlusOne;
+        private final AtomicBoolean reported = new AtomicBoolean();
+
+        HandlerMeters(String handler) {
+            this.handler = handler;
+            this.statements = DistributionSummary.builder("taskmanager.request.sql.statements")
+                    .description("SQL statements prepared per request")
+                    .tag("handler", handler)
+                    .serviceLevelObjectives(COUNT_BUCKETS)
+                    .register(registry);
+            this.entityLoads = DistributionSummary.builder("taskmanager.request.entity.loads")
+                    .description("Entities loaded by Hibernate per request")
+                    .tag("handler", handler)
+                    .serviceLevelObjectives(COUNT_BUCKETS)
+                    .register(registry);
+            this.nPlusOne = Counter.builder("taskmanager.request.n.plus.one")
+                    .description("Requests that repeated one SQL statement at least the N+1 threshold")
+                    .tag("handler", handler)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.taskmanager.app.config;
+
+import com.taskmanager.app.event.EntityChangedEvent;
+import com.taskmanager.app.event.EntityPurgedEvent;
+import com.taskmanager.app.event.EntityType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies users and projects from shard 0, where they are written, to the other shards, so the tasks there
+ * can join and reference them. Every change goes out just before shard 0 commits, so a row is on all shards
+ * by the time anyone can see it, and a task created for it right away does not miss it. If shard 0 then
+ * rolls back, the copies are put back to what it still holds. If a shard refuses a purge because its tasks
+ * still reference the row, the purge is undone everywhere.
+ */
+@Slf4j
+class ReferenceTableReplicator {
+
+    private final JdbcTemplate source;
+    private final List<JdbcTemplate> replicas = new ArrayList<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    ReferenceTableReplicator(ShardRoutingDataSource shards) {
+        this.source = new JdbcTemplate(shards.shard(0));
+        for (int shard = 1; shard < shards.size(); shard++) {
+            replicas.add(new JdbcTemplate(shards.shard(shard)));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void beforeCommit(EntityPurgedEvent event) {
+        String table = table(event.type());
+        if (table == null) {
+            return;
+        }
+        // Shard 0's own foreign keys get the first say
+        entityManager.flush();
+        List<JdbcTemplate> deleted = new ArrayList<>();
+        try {
+            for (JdbcTemplate replica : replicas) {
+                replica.update("delete from " + table + " where id = ?", event.id());
+                deleted.add(replica);
+            }
+        } catch (RuntimeException e) {
+            // Shard 0 still shows the committed row to other connections
+            Map<String, Object> row = read(source, table, event.id());
+            for (JdbcTemplate replica : deleted) {
+                write(replica, table, row);
+            }
+            throw e;
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void beforeCommit(EntityChangedEvent event) {
+        String table = table(event.type());
+        if (table == null) {
+            return;
+        }
+        entityManager.flush();
+        // Uncommitted, so only this transaction's connection sees the row
+        Map<String, Object> row = entityManager.unwrap(Session.class).doReturningWork(connection ->
+                read(new JdbcTemplate(new SingleConnectionDataSource(connection, true)), table, event.id()));
+        if (row == null) {
+            // Purged in the same transaction; that copies itself
+            return;
+        }
+        for (JdbcTemplate replica : replicas) {
+            write(replica, table, row);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void afterRollback(EntityChangedEvent event) {
+        String table = table(event.type());
+        if (table == null) {
+            return;
+        }
+        Map<String, Object> row = read(source, table, event.id());
+        for (JdbcTemplate replica : replicas) {
+            try {
+                if (row == null) {
+                    replica.update("delete from " + table + " where id = ?", event.id());
+                } else {
+                    write(replica, table, row);
+                }
+            } catch (DataAccessException e) {
+                // A task already references the row that never committed; shard 0's next copy overwrites it
+                log.warn("Could not undo the copy of {} {} on a shard", table, event.id(), e);
+            }
+        }
+    }
+
+    private static String table(EntityType type) {
+        return switch (type) {
+            case USER -> "users";
+            case PROJECT -> "projects";
+            case TASK -> null;
+        };
+    }
+
+    private static Map<String, Object> read(JdbcTemplate shard, String table, Long id) {
+        List<Map<String, Object>> rows = shard.queryForList("select * from " + table + " where id = ?", id);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static void write(JdbcTemplate replica, String table, Map<String, Object> row) {
+        String columns = String.join(", ", row.keySet());
+        String values = String.join(", ", Collections.nCopies(row.size(), "?"));
+        replica.update("merge into " + table + " (" + columns + ") key (id) values (" + values + ")",
+                row.values().toArray());
+    }
+}
@@ -0,0 +1,65 @@
+package com.taskmanager.app.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL statements prepared and entities loaded by the current request, fed from Hibernate callbacks on the
+ * request thread. Also tracks how often the most repeated statement ran, which is what an N+1 looks like.
+ */
+final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> executions = new HashMap<>();
+    private int statements;
+    private int entityLoads;
+    private int maxRepeats;
+    private String mostRepeated;
+
+    static void begin() {
+        CURRENT.set(new RequestQueryStats());
+    }
+
+    static RequestQueryStats end() {
+        RequestQueryStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    static void statementPrepared(String sql) {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return;
+        }
+        stats.statements++;
+        int repeats = stats.executions.merge(sql, 1, Integer::sum);
+        if (repeats > stats.maxRepeats) {
+            stats.maxRepeats = repeats;
+            stats.mostRepeated = sql;
+        }
+    }
+
+    static void entityLoaded() {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.entityLoads++;
+        }
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    int entityLoads() {
+        return entityLoads;
+    }
+
+    int maxRepeats() {
+        return maxRepeats;
+    }
+
+    String mostRepeated() {
+        return mostRepeated;
+    }
+}
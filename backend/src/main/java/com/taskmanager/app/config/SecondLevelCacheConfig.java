@@ -0,0 +1,109 @@
+package com.taskmanager.app.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate's second-level cache on JCache (Caffeine): users and projects by id, and the results of the
+ * task queries marked cacheable in the task repository. Whether either is on is decided by the
+ * {@code hibernate.cache.*} switches in application.properties.
+ *
+ * <p>Every region is created here with a bounded size and Hibernate refuses to start if a mapping asks for
+ * another one. Writes made through Hibernate, bulk updates included, invalidate the cached query results
+ * over the tables they touch when they commit.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${taskmanager.cache.hibernate.entity-max-size:10000}") long entityMaxSize,
+            @Value("${taskmanager.cache.hibernate.query-max-size:1000}") long queryMaxSize,
+            @Value("${taskmanager.cache.hibernate.ttl:10m}") Duration ttl) {
+        // A manager of its own, so application contexts sharing the JVM do not share regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("taskmanager-hibernate-" + UUID.randomUUID()),
+                        SecondLevelCacheConfig.class.getClassLoader());
+        cacheManager.createCache(User.class.getName(), region(entityMaxSize, ttl));
+        cacheManager.createCache(Project.class.getName(), region(entityMaxSize, ttl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(queryMaxSize, ttl));
+        // Never evicted: a query result whose tables have no timestamp counts as current
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                region(OptionalLong.empty(), OptionalLong.empty()));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    // Query result regions are listed along with the entity regions
+    @Bean
+    public MeterBinder secondLevelCacheHitRatios(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            if (!statistics.isStatisticsEnabled()) {
+                return;
+            }
+            for (String region : statistics.getSecondLevelCacheRegionNames()) {
+                CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+                if (regionStatistics == null) {
+                    continue;
+                }
+                Gauge.builder("hibernate.second.level.cache.hit.ratio", regionStatistics,
+                                stats -> hitRatio(stats.getHitCount(), stats.getMissCount()))
+                        .tag("region", region)
+                        .description("Share of second-level cache lookups in the region that were hits")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        return region(OptionalLong.of(maxSize), OptionalLong.of(ttl.toNanos()));
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(OptionalLong maxSize, OptionalLong ttlNanos) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate's cache entries are immutable, so the default copy per read and write is wasted
+        configuration.setStoreByValue(false);
+        // Caffeine's own counters, for the evictions reported by CacheStatsService
+        configuration.setNativeStatisticsEnabled(true);
+        configuration.setMaximumSize(maxSize);
+        configuration.setExpireAfterWrite(ttlNanos);
+        return configuration;
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        return hits + misses == 0 ? Double.NaN : (double) hits / (hits + misses);
+    }
+}
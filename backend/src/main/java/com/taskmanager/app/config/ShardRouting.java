@@ -0,0 +1,74 @@
+package com.taskmanager.app.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard the current thread's transaction talks to when tasks are sharded. A transaction gets its physical
+ * connection at its first statement and keeps it, so the shard has to be chosen before that; a transaction
+ * that chose none uses shard 0, which holds users and projects. Has no effect when sharding is off.
+ */
+public final class ShardRouting {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private ShardRouting() {
+    }
+
+    /**
+     * Routes the current transaction to {@code shard}, until it completes.
+     *
+     * @throws IllegalStateException if it already uses another shard
+     */
+    public static void bind(int shard) {
+        Integer current = SHARD.get();
+        if (current != null) {
+            if (current != shard) {
+                throw new IllegalStateException("Transaction already uses shard " + current + ", not " + shard);
+            }
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Routing to shard " + shard + " needs an active transaction");
+        }
+        SHARD.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                SHARD.remove();
+            }
+        });
+    }
+
+    /**
+     * Runs {@code work} with the transactions it opens on {@code shard}. It must not join a transaction
+     * that is already running.
+     */
+    public static <T> T on(int shard, Supplier<T> work) {
+        Integer previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        }
+    }
+
+    static int current() {
+        Integer shard = SHARD.get();
+        if (shard != null) {
+            return shard;
+        }
+        // Record the default, so routing the same transaction elsewhere afterwards fails instead of going unnoticed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            bind(0);
+        }
+        return 0;
+    }
+}
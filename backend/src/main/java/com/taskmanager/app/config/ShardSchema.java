@@ -0,0 +1,48 @@
+package com.taskmanager.app.config;
+
+import org.hibernate.relational.SchemaManager;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Applies {@code spring.jpa.hibernate.ddl-auto=create|create-drop} to shards 1..n; Hibernate's own schema
+ * management only reaches shard 0. Other modes leave the shards' schemas to whoever manages shard 0's.
+ */
+class ShardSchema implements InitializingBean, DisposableBean {
+
+    private final SchemaManager schemaManager;
+    private final int shards;
+    private final String ddlAuto;
+
+    ShardSchema(SchemaManager schemaManager, int shards, String ddlAuto) {
+        this.schemaManager = schemaManager;
+        this.shards = shards;
+        this.ddlAuto = ddlAuto;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (ddlAuto.equals("create") || ddlAuto.equals("create-drop")) {
+            forEachOtherShard(() -> {
+                schemaManager.dropMappedObjects(false);
+                schemaManager.exportMappedObjects(false);
+            });
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (ddlAuto.equals("create-drop")) {
+            forEachOtherShard(() -> schemaManager.dropMappedObjects(false));
+        }
+    }
+
+    private void forEachOtherShard(Runnable work) {
+        for (int shard = 1; shard < shards; shard++) {
+            ShardRouting.on(shard, () -> {
+                work.run();
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.taskmanager.app.config;
+
+import com.taskmanager.app.domain.TaskIdGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tasks sharded by project, active once {@code taskmanager.sharding.shard-urls} lists the databases beyond
+ * the regular one, which becomes shard 0.
+ *
+ * <p>A task lives on shard {@code projectId mod n} (tasks without a project on shard 0) and its id names that
+ * shard, see {@link TaskIdGenerator}. Users and projects are written on shard 0 and copied to every other
+ * shard, so tasks keep their joins and foreign keys locally. Like the replica split, the application sees
+ * one lazy DataSource whose physical connection is chosen at the first statement, here by
+ * {@link ShardRouting}.
+ */
+@Configuration
+@ConditionalOnProperty("taskmanager.sharding.shard-urls")
+public class ShardingConfig {
+
+    private final List<String> shardUrls;
+
+    public ShardingConfig(Environment environment,
+                          @Value("${taskmanager.sharding.shard-urls}") List<String> shardUrls) {
+        if (environment.containsProperty("taskmanager.datasource.replica.jdbc-url")) {
+            throw new IllegalStateException("Sharding cannot be combined with a read replica");
+        }
+        if (environment.getProperty("taskmanager.persistence.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("Sharding cannot be combined with snapshot persistence");
+        }
+        if (shardUrls.size() + 1 > TaskIdGenerator.MAX_SHARDS) {
+            throw new IllegalStateException("At most " + TaskIdGenerator.MAX_SHARDS + " shards are supported");
+        }
+        this.shardUrls = shardUrls;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource shard0DataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("shard-0");
+        return dataSource;
+    }
+
+    @Bean
+    ShardRoutingDataSource shardRoutingDataSource(HikariDataSource shard0DataSource, DataSourceProperties properties,
+                                                  ObjectProvider<MeterRegistry> meterRegistry,
+                                                  @Value("${taskmanager.sharding.maximum-pool-size:10}") int poolSize) {
+        List<HikariDataSource> shards = new ArrayList<>();
+        shards.add(shard0DataSource);
+        for (String url : shardUrls) {
+            // Only shard 0 is a bean, so the other pools register their metrics themselves
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard-" + shards.size());
+            shard.setJdbcUrl(url.trim());
+            shard.setUsername(properties.determineUsername());
+            shard.setPassword(properties.determinePassword());
+            shard.setMaximumPoolSize(poolSize);
+            meterRegistry.ifAvailable(registry ->
+                    shard.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardingCustomizer() {
+        return properties -> {
+            properties.put(TaskIdGenerator.SHARD_COUNT, shardUrls.size() + 1);
+            // An open-in-view session would otherwise keep its first transaction's connection, and so its
+            // shard, for every later transaction of the request
+            properties.put(AvailableSettings.CONNECTION_HANDLING,
+                    PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+            // Cached query results are keyed without the shard they were read from
+            properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+        };
+    }
+
+    @Bean
+    ShardSchema shardSchema(EntityManagerFactory entityManagerFactory, ShardRoutingDataSource shardRoutingDataSource,
+                            @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return new ShardSchema(entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager(),
+                shardRoutingDataSource.size(), ddlAuto);
+    }
+
+    @Bean
+    ReferenceTableReplicator referenceTableReplicator(ShardRoutingDataSource shardRoutingDataSource) {
+        return new ReferenceTableReplicator(shardRoutingDataSource);
+    }
+}
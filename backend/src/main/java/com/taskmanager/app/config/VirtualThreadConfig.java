@@ -0,0 +1,46 @@
+package com.taskmanager.app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled=true}, in which Boot runs Tomcat requests, MVC async
+ * work and scheduled jobs on virtual threads. Without a Tomcat thread pool nothing bounds how many threads
+ * block on JDBC at once, so the application DataSource admits connections up to the pool size in a fair queue
+ * and otherwise fails after {@code admission-timeout}. Requests that never take a connection are not limited.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor connectionAdmission(Environment environment) {
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        Duration timeout = environment.getProperty("taskmanager.datasource.admission-timeout", Duration.class,
+                Duration.ofSeconds(5));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                        ? new ConnectionAdmissionDataSource(dataSource, poolSize, timeout)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "taskmanager.diagnostics.pinning.enabled", matchIfMissing = true)
+    public PinnedThreadMonitor pinnedThreadMonitor(
+            @Value("${taskmanager.diagnostics.pinning.threshold:20ms}") Duration threshold) {
+        return new PinnedThreadMonitor(threshold);
+    }
+}
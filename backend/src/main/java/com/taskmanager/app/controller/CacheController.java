@@ -0,0 +1,23 @@
+package com.taskmanager.app.controller;
+
+import com.taskmanager.app.dto.CacheStatsView;
+import com.taskmanager.app.service.CacheStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/caches")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+public class CacheController {
+
+    private final CacheStatsService cacheStatsService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, CacheStatsView>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.stats());
+    }
+}
@@ -0,0 +1,134 @@
+package com.taskmanager.app.controller;
+
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.User;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+final class ETags {
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    // The formats MessageFormatConfig adds, in the order of their converters, which is how MVC lists the
+    // producible types: Boot keeps Spring's defaults (JSON, then Smile, then CBOR) and puts each bean in place
+    // of the default it replaces
+    static final List<MediaType> PRODUCIBLE = List.of(MediaType.APPLICATION_JSON, SMILE,
+            MediaType.APPLICATION_CBOR);
+
+    private ETags() {
+    }
+
+    static String strong(Long version, WebRequest request) {
+        return strong(List.of(version), request);
+    }
+
+    /**
+     * Strong tag over the versions of a resource and of the rows embedded in its representation, e.g.
+     * {@code "7-2-3-"}: the resource's own version comes first (it is what If-Match is checked against) and an
+     * absent embedded row leaves its place empty. Strong tags promise identical bytes, so CBOR and Smile bodies
+     * get a suffix ({@code "7-2-3-+cbor"}); responses carry {@code Vary: Accept} for the same reason.
+     */
+    static String strong(List<Long> versions, WebRequest request) {
+        return versions.stream()
+                .map(version -> version == null ? "" : version.toString())
+                .collect(Collectors.joining("-", "\"", representation(request) + "\""));
+    }
+
+    static String strong(Task task, WebRequest request) {
+        Project project = task.getProject();
+        return strong(Arrays.asList(task.getVersion(), versionOf(task.getAssignedTo()), versionOf(project),
+                project == null ? null : versionOf(project.getCreatedBy())), request);
+    }
+
+    static String strong(Project project, WebRequest request) {
+        return strong(Arrays.asList(project.getVersion(), versionOf(project.getCreatedBy())), request);
+    }
+
+    /**
+     * Suffix of the format the request's Accept header selects, chosen the way MVC picks among the producible
+     * types: most specific and highest quality first, wildcards resolving to JSON. Headers MVC would answer
+     * with 406 get the JSON suffix; no body is written for them anyway.
+     */
+    private static String representation(WebRequest request) {
+        String[] accept = request.getHeaderValues(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return "";
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(Arrays.asList(accept));
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MimeTypeUtils.sortBySpecificity(acceptable);
+        List<MediaType> candidates = new ArrayList<>();
+        for (MediaType accepted : acceptable) {
+            for (MediaType producible : PRODUCIBLE) {
+                if (accepted.isCompatibleWith(producible)) {
+                    MediaType withQuality = producible.copyQualityValue(accepted);
+                    candidates.add(accepted.isLessSpecific(withQuality) ? withQuality : accepted);
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(candidates);
+        for (MediaType candidate : candidates) {
+            if (candidate.isConcrete()) {
+                return candidate.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR) ? "+cbor"
+                        : candidate.equalsTypeAndSubtype(SMILE) ? "+smile"
+                        : "";
+            }
+        }
+        return "";
+    }
+
+    private static Long versionOf(User user) {
+        return user == null ? null : user.getVersion();
+    }
+
+    private static Long versionOf(Project project) {
+        return project == null ? null : project.getVersion();
+    }
+
+    static String weak(String stamp) {
+        return "W/\"" + stamp + "\"";
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    /**
+     * Entity version named by an If-Match header, or null when the header is absent or "*".
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            // Weak tags never satisfy If-Match
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match requires a strong ETag");
+        }
+        // Tags lead with the resource's own version; embedded rows and the format follow. The version alone is
+        // compared, so a tag read in one format is a valid precondition for a write answered in another
+        String version = tag.replace("\"", "");
+        int end = version.indexOf('-') >= 0 ? version.indexOf('-') : version.indexOf('+');
+        try {
+            return Long.valueOf(end < 0 ? version : version.substring(0, end));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Unrecognized ETag: " + ifMatch);
+        }
+    }
+}
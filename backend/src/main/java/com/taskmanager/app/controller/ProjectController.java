@@ -1,12 +1,23 @@
 package com.taskmanager.app.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.dto.DeletionJob;
+import com.taskmanager.app.dto.TaskStats;
+import com.taskmanager.app.event.EntityType;
+import com.taskmanager.app.repository.FieldSet;
+import com.taskmanager.app.service.CascadeDeletionService;
 import com.taskmanager.app.service.ProjectService;
+import com.taskmanager.app.service.TableVersions;
+import com.taskmanager.app.service.TaskStatsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -16,20 +27,45 @@ import java.util.List;
 public class ProjectController {
 
     private final ProjectService projectService;
+    private final TaskStatsService taskStatsService;
+    private final TableVersions tableVersions;
+    private final CascadeDeletionService cascadeDeletionService;
 
     @GetMapping
-    public ResponseEntity<List<Project>> getAllProjects() {
-        return ResponseEntity.ok(projectService.getAllProjects());
+    public ResponseEntity<List<?>> getAllProjects(@RequestParam(required = false) String fields,
+                                                  WebRequest request) {
+        FieldSet fieldSet = FieldSet.parse(fields, FieldSet.PROJECT);
+        // Projects embed their creator, so user changes invalidate the list too
+        String etag = ETags.weak(tableVersions.stamp(EntityType.PROJECT, EntityType.USER));
+        if (request.checkNotModified(etag)) {
+            return ETags.notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag)
+                .body(fieldSet == null ? projectService.getAllProjects() : projectService.getAllProjects(fieldSet));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Project> getProjectById(@PathVariable Long id) {
-        return ResponseEntity.ok(projectService.getProjectById(id));
+    public ResponseEntity<Project> getProjectById(@PathVariable Long id, WebRequest request) {
+        String etag = ETags.strong(projectService.getProjectVersions(id), request);
+        if (request.checkNotModified(etag)) {
+            return ETags.notModified(etag);
+        }
+        Project project = projectService.getProjectById(id);
+        return ResponseEntity.ok().eTag(ETags.strong(project, request)).body(project);
+    }
+
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<TaskStats> getProjectStats(@PathVariable Long id) {
+        return ResponseEntity.ok(taskStatsService.getProjectStats(id));
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Project>> getProjectsByUserId(@PathVariable Long userId) {
-        return ResponseEntity.ok(projectService.getProjectsByUserId(userId));
+    public ResponseEntity<List<Project>> getProjectsByUserId(@PathVariable Long userId, WebRequest request) {
+        String etag = ETags.weak(tableVersions.stamp(EntityType.PROJECT, EntityType.USER));
+        if (request.checkNotModified(etag)) {
+            return ETags.notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(projectService.getProjectsByUserId(userId));
     }
 
     @PostMapping
@@ -38,13 +74,37 @@ public class ProjectController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Project> updateProject(@PathVariable Long id, @RequestBody Project project) {
-        return ResponseEntity.ok(projectService.updateProject(id, project));
+    public ResponseEntity<Project> updateProject(
+            @PathVariable Long id,
+            @RequestBody Project project,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            WebRequest request) {
+        Project updated = projectService.updateProject(id, project, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.strong(updated, request)).body(updated);
+    }
+
+    // RFC 7396 merge patch (application/merge-patch+json or application/json)
+    @PatchMapping("/{id}")
+    public ResponseEntity<Project> patchProject(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            WebRequest request) {
+        Project updated = projectService.patchProject(id, patch, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.strong(updated, request)).body(updated);
     }
 
+    // Hidden at once, removed by a background job; its progress is at the Location returned
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProject(@PathVariable Long id) {
-        projectService.deleteProject(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<DeletionJob> deleteProject(@PathVariable Long id) {
+        DeletionJob job = cascadeDeletionService.deleteProject(id);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/projects/" + id + "/deletion"))
+                .body(job);
+    }
+
+    @GetMapping("/{id}/deletion")
+    public ResponseEntity<DeletionJob> getProjectDeletion(@PathVariable Long id) {
+        return ResponseEntity.ok(cascadeDeletionService.getJob(EntityType.PROJECT, id));
     }
 }
\ No newline at end of file
@@ -1,14 +1,40 @@
 package com.taskmanager.app.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.taskmanager.app.domain.Priority;
 import com.taskmanager.app.domain.Task;
 import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.dto.BulkAssigneeUpdate;
+import com.taskmanager.app.dto.BulkStatusUpdate;
+import com.taskmanager.app.dto.BulkUpdateResult;
+import com.taskmanager.app.dto.CursorPage;
+import com.taskmanager.app.dto.IngestTicket;
+import com.taskmanager.app.dto.TaskBatchResult;
+import com.taskmanager.app.dto.TaskStats;
+import com.taskmanager.app.dto.TaskView;
+import com.taskmanager.app.event.EntityType;
+import com.taskmanager.app.repository.FieldSet;
+import com.taskmanager.app.repository.TaskCursor;
+import com.taskmanager.app.repository.TaskFilter;
+import com.taskmanager.app.repository.TaskSort;
+import com.taskmanager.app.service.TableVersions;
+import com.taskmanager.app.service.TaskDueDateService;
+import com.taskmanager.app.service.TaskExportFormat;
+import com.taskmanager.app.service.TaskExportService;
+import com.taskmanager.app.service.TaskIngestionService;
+import com.taskmanager.app.service.TaskSearchService;
 import com.taskmanager.app.service.TaskService;
+import com.taskmanager.app.service.TaskStatsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
@@ -18,55 +44,183 @@ import java.util.Map;
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
 public class TaskController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 10_000;
+
     private final TaskService taskService;
+    private final TaskIngestionService taskIngestionService;
+    private final TaskExportService taskExportService;
+    private final TaskStatsService taskStatsService;
+    private final TaskSearchService taskSearchService;
+    private final TaskDueDateService taskDueDateService;
+    private final TableVersions tableVersions;
 
     @GetMapping
-    public ResponseEntity<List<Task>> getAllTasks(
+    public ResponseEntity<CursorPage<?>> getAllTasks(
             @RequestParam(required = false) TaskStatus status,
-            @RequestParam(required = false) Priority priority) {
-
-        if (status != null && priority != null) {
-            return ResponseEntity.ok(taskService.getTasksByStatusAndPriority(status, priority));
-        } else if (status != null) {
-            return ResponseEntity.ok(taskService.getTasksByStatus(status));
-        } else if (priority != null) {
-            return ResponseEntity.ok(taskService.getTasksByPriority(priority));
-        } else {
-            return ResponseEntity.ok(taskService.getAllTasks());
+            @RequestParam(required = false) Priority priority,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        TaskFilter filter = TaskFilter.builder().status(status).priority(priority).build();
+        return page(filter, after, limit, sort, fields, request);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam(defaultValue = "ndjson") String format) {
+        TaskExportFormat exportFormat = TaskExportFormat.fromParam(format);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=tasks." + exportFormat.getExtension())
+                .body(out -> taskExportService.export(exportFormat, out));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<TaskView>> searchTasks(
+            @RequestParam String q,
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) Priority priority,
+            @RequestParam(required = false) Long projectId,
+            @RequestParam(required = false) Long assignedToId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        String etag = listETag();
+        if (request.checkNotModified(etag)) {
+            return ETags.notModified(etag);
         }
+        TaskFilter filter = new TaskFilter(status, priority, assignedToId, projectId);
+        return ResponseEntity.ok().eTag(etag).body(taskSearchService.search(q, filter, after, pageSize(limit)));
+    }
+
+    // Open tasks due before today, by due date; the cursor is the same as for sort=dueDate
+    @GetMapping("/overdue")
+    public ResponseEntity<CursorPage<TaskView>> getOverdueTasks(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        TaskCursor cursor = after == null || after.isBlank() ? null : TaskCursor.decode(after, TaskSort.DUE_DATE);
+        return ResponseEntity.ok(taskDueDateService.getOverdueTasks(cursor, pageSize(limit)));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStats> getTaskStats() {
+        return ResponseEntity.ok(taskStatsService.getStats());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Task> getTaskById(@PathVariable Long id) {
-        return ResponseEntity.ok(taskService.getTaskById(id));
+    public ResponseEntity<Task> getTaskById(@PathVariable Long id, WebRequest request) {
+        String etag = ETags.strong(taskService.getTaskVersions(id), request);
+        if (request.checkNotModified(etag)) {
+            return ETags.notModified(etag);
+        }
+        Task task = taskService.getTaskById(id);
+        return ResponseEntity.ok().eTag(ETags.strong(task, request)).body(task);
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Task>> getTasksByUserId(@PathVariable Long userId) {
-        return ResponseEntity.ok(taskService.getTasksByUserId(userId));
+    public ResponseEntity<CursorPage<?>> getTasksByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        TaskFilter filter = TaskFilter.builder().assignedToId(userId).build();
+        return page(filter, after, limit, sort, fields, request);
     }
 
     @GetMapping("/project/{projectId}")
-    public ResponseEntity<List<Task>> getTasksByProjectId(@PathVariable Long projectId) {
-        return ResponseEntity.ok(taskService.getTasksByProjectId(projectId));
+    public ResponseEntity<CursorPage<?>> getTasksByProjectId(
+            @PathVariable Long projectId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        TaskFilter filter = TaskFilter.builder().projectId(projectId).build();
+        return page(filter, after, limit, sort, fields, request);
     }
 
     @PostMapping
-    public ResponseEntity<Task> createTask(@RequestBody Task task) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(taskService.createTask(task));
+    public ResponseEntity<?> createTask(@RequestBody Task task, @RequestParam(required = false) String mode) {
+        if (mode == null || mode.equals("sync")) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(taskService.createTask(task));
+        }
+        if (!mode.equals("async")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported mode: " + mode);
+        }
+        if (task.getTitle() == null || task.getTitle().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Title is required");
+        }
+        IngestTicket ticket = taskIngestionService.submit(task);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/tasks/ingest/" + ticket.ticket()))
+                .body(ticket);
+    }
+
+    @GetMapping("/ingest/{ticket}")
+    public ResponseEntity<IngestTicket> getIngestTicket(@PathVariable String ticket) {
+        return ResponseEntity.ok(taskIngestionService.getTicket(ticket));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<TaskBatchResult>> createTasks(@RequestBody List<Task> tasks) {
+        if (tasks.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "At most " + MAX_BATCH_SIZE + " tasks per batch");
+        }
+        List<TaskBatchResult> results = taskService.createTasks(tasks);
+        boolean allCreated = results.stream().allMatch(TaskBatchResult::isSuccess);
+        return ResponseEntity.status(allCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(results);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Task> updateTask(@PathVariable Long id, @RequestBody Task task) {
-        return ResponseEntity.ok(taskService.updateTask(id, task));
+    public ResponseEntity<Task> updateTask(
+            @PathVariable Long id,
+            @RequestBody Task task,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            WebRequest request) {
+        Task updated = taskService.updateTask(id, task, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.strong(updated, request)).body(updated);
     }
 
     @PatchMapping("/{id}/status")
     public ResponseEntity<Task> updateTaskStatus(
             @PathVariable Long id,
-            @RequestBody Map<String, String> statusUpdate) {
+            @RequestBody Map<String, String> statusUpdate,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            WebRequest request) {
         TaskStatus status = TaskStatus.valueOf(statusUpdate.get("status"));
-        return ResponseEntity.ok(taskService.updateTaskStatus(id, status));
+        String expected = statusUpdate.get("expectedStatus");
+        Task updated = taskService.updateTaskStatus(id, expected == null ? null : TaskStatus.valueOf(expected),
+                status, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.strong(updated, request)).body(updated);
+    }
+
+    @PatchMapping("/status")
+    public ResponseEntity<BulkUpdateResult> updateTaskStatuses(@RequestBody BulkStatusUpdate update) {
+        BulkUpdateResult result = taskService.updateTaskStatuses(update);
+        return ResponseEntity.status(result.rejected().isEmpty() ? HttpStatus.OK : HttpStatus.MULTI_STATUS)
+                .body(result);
+    }
+
+    @PatchMapping("/assignee")
+    public ResponseEntity<BulkUpdateResult> updateTaskAssignees(@RequestBody BulkAssigneeUpdate update) {
+        return ResponseEntity.ok(new BulkUpdateResult(taskService.updateTaskAssignees(update)));
+    }
+
+    // RFC 7396 merge patch (application/merge-patch+json or application/json)
+    @PatchMapping("/{id}")
+    public ResponseEntity<Task> patchTask(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            WebRequest request) {
+        Task updated = taskService.patchTask(id, patch, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.strong(updated, request)).body(updated);
     }
 
     @DeleteMapping("/{id}")
@@ -74,4 +228,27 @@ public class TaskController {
         taskService.deleteTask(id);
         return ResponseEntity.noContent().build();
     }
+
+    private ResponseEntity<CursorPage<?>> page(TaskFilter filter, String after, Integer limit, String sort,
+                                               String fields, WebRequest request) {
+        TaskSort taskSort = TaskSort.fromParam(sort);
+        TaskCursor cursor = after == null || after.isBlank() ? null : TaskCursor.decode(after, taskSort);
+        FieldSet fieldSet = FieldSet.parse(fields, FieldSet.TASK);
+        String etag = listETag();
+        if (request.checkNotModified(etag)) {
+            return ETags.notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(fieldSet == null
+                ? taskService.getTaskPage(filter, taskSort, cursor, pageSize(limit))
+                : taskService.getTaskPage(filter, taskSort, cursor, pageSize(limit), fieldSet));
+    }
+
+    // Task views embed assignee and project names, so those tables feed the tag as well
+    private String listETag() {
+        return ETags.weak(tableVersions.stamp(EntityType.TASK, EntityType.USER, EntityType.PROJECT));
+    }
+
+    private static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
 }
\ No newline at end of file
@@ -1,12 +1,21 @@
 package com.taskmanager.app.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.taskmanager.app.domain.User;
+import com.taskmanager.app.dto.DeletionJob;
+import com.taskmanager.app.event.EntityType;
+import com.taskmanager.app.repository.FieldSet;
+import com.taskmanager.app.service.CascadeDeletionService;
+import com.taskmanager.app.service.TableVersions;
 import com.taskmanager.app.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -16,15 +25,28 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final TableVersions tableVersions;
+    private final CascadeDeletionService cascadeDeletionService;
 
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<?>> getAllUsers(@RequestParam(required = false) String fields, WebRequest request) {
+        FieldSet fieldSet = FieldSet.parse(fields, FieldSet.USER);
+        String etag = ETags.weak(tableVersions.stamp(EntityType.USER));
+        if (request.checkNotModified(etag)) {
+            return ETags.notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag)
+                .body(fieldSet == null ? userService.getAllUsers() : userService.getAllUsers(fieldSet));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+    public ResponseEntity<User> getUserById(@PathVariable Long id, WebRequest request) {
+        String etag = ETags.strong(userService.getUserVersion(id), request);
+        if (request.checkNotModified(etag)) {
+            return ETags.notModified(etag);
+        }
+        User user = userService.getUserById(id);
+        return ResponseEntity.ok().eTag(ETags.strong(user.getVersion(), request)).body(user);
     }
 
     @PostMapping
@@ -33,13 +55,37 @@ public class UserController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User user) {
-        return ResponseEntity.ok(userService.updateUser(id, user));
+    public ResponseEntity<User> updateUser(
+            @PathVariable Long id,
+            @RequestBody User user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            WebRequest request) {
+        User updated = userService.updateUser(id, user, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.strong(updated.getVersion(), request)).body(updated);
     }
 
+    // RFC 7396 merge patch (application/merge-patch+json or application/json)
+    @PatchMapping("/{id}")
+    public ResponseEntity<User> patchUser(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            WebRequest request) {
+        User updated = userService.patchUser(id, patch, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.strong(updated.getVersion(), request)).body(updated);
+    }
+
+    // Hidden at once, removed by a background job; its progress is at the Location returned
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        userService.deleteUser(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<DeletionJob> deleteUser(@PathVariable Long id) {
+        DeletionJob job = cascadeDeletionService.deleteUser(id);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/users/" + id + "/deletion"))
+                .body(job);
+    }
+
+    @GetMapping("/{id}/deletion")
+    public ResponseEntity<DeletionJob> getUserDeletion(@PathVariable Long id) {
+        return ResponseEntity.ok(cascadeDeletionService.getJob(EntityType.USER, id));
     }
 }
\ No newline at end of file
@@ -5,20 +5,39 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        // (status, priority) also serves status-only lookups through its leading column
+        @Index(name = "idx_tasks_status_priority", columnList = "status, priority"),
+        @Index(name = "idx_tasks_priority", columnList = "priority"),
+        @Index(name = "idx_tasks_assigned_to", columnList = "assigned_to_user_id"),
+        @Index(name = "idx_tasks_project", columnList = "project_id"),
+        // Keyset pagination orderings
+        @Index(name = "idx_tasks_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_tasks_due_date", columnList = "due_date, id")
+})
+// UPDATE statements name only the changed columns, which keeps merge patches small
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Task {
 
+    // Pooled sequence ids (not IDENTITY) so Hibernate can batch inserts; sharded, they also name the shard
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "task_seq")
+    @GenericGenerator(name = "task_seq", type = TaskIdGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "task_seq"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private Long id;
 
     @Column(nullable = false)
@@ -35,11 +54,11 @@ public class Task {
     @Column(nullable = false)
     private Priority priority;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "assigned_to_user_id")
     private User assignedTo;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id")
     private Project project;
 
@@ -49,6 +68,9 @@ public class Task {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @Version
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,77 @@
+package com.taskmanager.app.domain;
+
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Task ids from the pooled {@code task_seq} sequence. Unsharded they are the sequence values themselves.
+ * Sharded, every shard draws from its own copy of the sequence and the shard number goes in the low bits,
+ * {@code value * MAX_SHARDS + shard}, so ids stay unique across shards and tell which shard holds the task.
+ * A task is placed on the shard of its project, see {@link #shardOfProject}.
+ */
+public class TaskIdGenerator implements IdentifierGenerator {
+
+    /**
+     * Hibernate setting carrying the number of shards; absent means unsharded.
+     */
+    public static final String SHARD_COUNT = "taskmanager.sharding.shard-count";
+    public static final int MAX_SHARDS = 64;
+
+    // One pooled optimizer per shard: a block of values drawn from one shard's sequence is only used there
+    private SequenceStyleGenerator[] sequences;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        Object shardCount = serviceRegistry.requireService(ConfigurationService.class).getSettings().get(SHARD_COUNT);
+        sequences = new SequenceStyleGenerator[shardCount == null ? 1 : Integer.parseInt(shardCount.toString())];
+        for (int shard = 0; shard < sequences.length; shard++) {
+            sequences[shard] = new SequenceStyleGenerator();
+            sequences[shard].configure(type, parameters, serviceRegistry);
+        }
+    }
+
+    @Override
+    public void registerExportables(Database database) {
+        for (SequenceStyleGenerator sequence : sequences) {
+            sequence.registerExportables(database);
+        }
+    }
+
+    @Override
+    public void initialize(SqlStringGenerationContext context) {
+        for (SequenceStyleGenerator sequence : sequences) {
+            sequence.initialize(context);
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        if (sequences.length == 1) {
+            return sequences[0].generate(session, object);
+        }
+        Project project = ((Task) object).getProject();
+        int shard = shardOfProject(project == null ? null : project.getId(), sequences.length);
+        // The session is already routed to this shard, so the value comes from that shard's sequence
+        long value = ((Number) sequences[shard].generate(session, object)).longValue();
+        return value * MAX_SHARDS + shard;
+    }
+
+    public static int shardOfTask(long taskId) {
+        return (int) Math.floorMod(taskId, (long) MAX_SHARDS);
+    }
+
+    /**
+     * Tasks without a project live on shard 0, next to the users and projects.
+     */
+    public static int shardOfProject(Long projectId, int shardCount) {
+        return projectId == null ? 0 : (int) Math.floorMod(projectId, (long) shardCount);
+    }
+}
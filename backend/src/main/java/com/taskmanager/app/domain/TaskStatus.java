@@ -3,5 +3,15 @@ package com.taskmanager.app.domain;
 public enum TaskStatus {
     TODO,
     IN_PROGRESS,
-    DONE
-}
\ No newline at end of file
+    DONE;
+
+    /**
+     * Finished tasks are reopened through IN_PROGRESS, never straight back to TODO. Staying put is always allowed.
+     */
+    public boolean canTransitionTo(TaskStatus next) {
+        return switch (this) {
+            case TODO, IN_PROGRESS -> true;
+            case DONE -> next != TODO;
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package com.taskmanager.app.dto;
+
+import com.taskmanager.app.repository.TaskFilter;
+
+import java.util.List;
+
+/**
+ * Targets tasks either by explicit {@code ids} or by {@code filter}; a null {@code assigneeId} unassigns them.
+ */
+public record BulkAssigneeUpdate(List<Long> ids, TaskFilter filter, Long assigneeId) {
+}
@@ -0,0 +1,12 @@
+package com.taskmanager.app.dto;
+
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.repository.TaskFilter;
+
+import java.util.List;
+
+/**
+ * Targets tasks either by explicit {@code ids} or by {@code filter}; exactly one of the two must be given.
+ */
+public record BulkStatusUpdate(List<Long> ids, TaskFilter filter, TaskStatus status) {
+}
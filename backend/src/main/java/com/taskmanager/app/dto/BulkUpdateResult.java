@@ -0,0 +1,17 @@
+package com.taskmanager.app.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk update: how many tasks were changed, and the targeted tasks that were left unchanged
+ * because the update is not allowed for them.
+ */
+public record BulkUpdateResult(int updated, List<Rejected> rejected) {
+
+    public BulkUpdateResult(int updated) {
+        this(updated, List.of());
+    }
+
+    public record Rejected(Long id, String error) {
+    }
+}
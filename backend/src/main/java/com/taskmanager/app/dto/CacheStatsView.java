@@ -0,0 +1,4 @@
+package com.taskmanager.app.dto;
+
+public record CacheStatsView(long size, long hits, long misses, double hitRate, long puts, long evictions) {
+}
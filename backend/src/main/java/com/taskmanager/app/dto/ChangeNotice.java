@@ -0,0 +1,12 @@
+package com.taskmanager.app.dto;
+
+import com.taskmanager.app.event.ChangeType;
+import com.taskmanager.app.event.EntityType;
+import com.taskmanager.app.event.TaskSnapshot;
+
+/**
+ * One entry of the change feed. Task notices carry the new column values ({@code task} is null for a
+ * deletion); user and project notices only carry the id, clients re-read those individually.
+ */
+public record ChangeNotice(EntityType type, Long id, ChangeType change, TaskSnapshot task) {
+}
@@ -0,0 +1,38 @@
+package com.taskmanager.app.dto;
+
+import com.taskmanager.app.event.EntityType;
+
+/**
+ * Progress of the background deletion of a project or user. A project's tasks are deleted; a user's tasks
+ * are unassigned and their projects lose their creator. {@code totalTasks} is the count when the job started,
+ * {@code error} is set once the job has FAILED.
+ */
+public record DeletionJob(EntityType type, Long id, Status status, long totalTasks, long tasksDone,
+                          long projectsDetached, String error) {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public static DeletionJob running(EntityType type, Long id, long totalTasks) {
+        return new DeletionJob(type, id, Status.RUNNING, totalTasks, 0, 0, null);
+    }
+
+    public DeletionJob addTasks(int count) {
+        return new DeletionJob(type, id, status, totalTasks, tasksDone + count, projectsDetached, error);
+    }
+
+    public DeletionJob addProjects(int count) {
+        return new DeletionJob(type, id, status, totalTasks, tasksDone, projectsDetached + count, error);
+    }
+
+    public DeletionJob complete() {
+        return new DeletionJob(type, id, Status.COMPLETED, totalTasks, tasksDone, projectsDetached, null);
+    }
+
+    public DeletionJob fail(String reason) {
+        return new DeletionJob(type, id, Status.FAILED, totalTasks, tasksDone, projectsDetached, reason);
+    }
+}
@@ -0,0 +1,28 @@
+package com.taskmanager.app.dto;
+
+/**
+ * State of a task accepted by asynchronous ingestion. {@code taskId} is set once the task is CREATED,
+ * {@code error} once it has FAILED.
+ */
+public record IngestTicket(String ticket, Status status, Long taskId, String error) {
+
+    public enum Status {
+        QUEUED,
+        CREATED,
+        FAILED
+    }
+
+    public static IngestTicket queued(String ticket) {
+        return new IngestTicket(ticket, Status.QUEUED, null, null);
+    }
+
+    public IngestTicket resolve(TaskBatchResult result) {
+        return result.isSuccess()
+                ? new IngestTicket(ticket, Status.CREATED, result.id(), null)
+                : new IngestTicket(ticket, Status.FAILED, null, result.error());
+    }
+
+    public IngestTicket fail(String reason) {
+        return new IngestTicket(ticket, Status.FAILED, null, reason);
+    }
+}
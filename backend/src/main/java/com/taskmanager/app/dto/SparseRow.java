@@ -0,0 +1,80 @@
+package com.taskmanager.app.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * One row of a sparse fieldset listing: the selected column values, written straight to JSON in the same
+ * nested shape as the full representation ({@code assignedTo.name} becomes {@code "assignedTo":{"name":..}}).
+ * An association whose id is null is written as null. Only the first {@code visible} columns are written;
+ * the rest are keys the query needed for itself.
+ */
+public final class SparseRow implements JsonSerializable {
+
+    private final List<String> columns;
+    private final int visible;
+    private final Object[] values;
+
+    public SparseRow(List<String> columns, int visible, Object[] values) {
+        this.columns = columns;
+        this.visible = visible;
+        this.values = values;
+    }
+
+    /**
+     * Value of a selected column, or null if it was not selected.
+     */
+    public Object get(String path) {
+        int index = columns.indexOf(path);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartObject();
+        String group = null;
+        boolean groupOpen = false;
+        for (int i = 0; i < visible; i++) {
+            String path = columns.get(i);
+            int dot = path.indexOf('.');
+            String pathGroup = dot < 0 ? null : path.substring(0, dot);
+            if (pathGroup == null ? group != null : !pathGroup.equals(group)) {
+                if (groupOpen) {
+                    gen.writeEndObject();
+                }
+                group = pathGroup;
+                groupOpen = false;
+                if (group != null) {
+                    gen.writeFieldName(group);
+                    if (get(group + ".id") == null) {
+                        gen.writeNull();
+                    } else {
+                        gen.writeStartObject();
+                        groupOpen = true;
+                    }
+                }
+            }
+            if (group != null && !groupOpen) {
+                continue;
+            }
+            gen.writeFieldName(dot < 0 ? path : path.substring(dot + 1));
+            serializers.defaultSerializeValue(values[i], gen);
+        }
+        if (groupOpen) {
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    // Rows are never serialized polymorphically
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+}
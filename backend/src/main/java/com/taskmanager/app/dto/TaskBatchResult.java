@@ -0,0 +1,19 @@
+package com.taskmanager.app.dto;
+
+/**
+ * Outcome of one element of a bulk request, identified by its position in the request array.
+ */
+public record TaskBatchResult(int index, Long id, String error) {
+
+    public static TaskBatchResult created(int index, Long id) {
+        return new TaskBatchResult(index, id, null);
+    }
+
+    public static TaskBatchResult failed(int index, String error) {
+        return new TaskBatchResult(index, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.taskmanager.app.dto;
+
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.TaskStatus;
+
+import java.util.Map;
+
+/**
+ * Task counts for one project or for all tasks. {@code overdue} counts tasks that are not DONE and whose
+ * due date is before today.
+ */
+public record TaskStats(long total,
+                        Map<TaskStatus, Long> byStatus,
+                        Map<Priority, Long> byPriority,
+                        Map<TaskStatus, Map<Priority, Long>> byStatusAndPriority,
+                        long overdue) {
+}
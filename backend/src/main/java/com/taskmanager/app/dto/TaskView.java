@@ -0,0 +1,32 @@
+package com.taskmanager.app.dto;
+
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.TaskStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read model for task listings. Built directly from a single joined query, so listing a page never
+ * loads Task/User/Project entities or triggers association fetches. Serializes to the same shape the
+ * frontend reads from a full Task.
+ */
+public record TaskView(Long id, String title, String description, TaskStatus status, Priority priority,
+                       LocalDate dueDate, LocalDateTime createdAt, UserRef assignedTo, ProjectRef project) {
+
+    public record UserRef(Long id, String name, String email) {
+    }
+
+    public record ProjectRef(Long id, String name) {
+    }
+
+    // Flat form used by the criteria constructor expression in TaskRepositoryImpl
+    public TaskView(Long id, String title, String description, TaskStatus status, Priority priority,
+                    LocalDate dueDate, LocalDateTime createdAt,
+                    Long assignedToId, String assignedToName, String assignedToEmail,
+                    Long projectId, String projectName) {
+        this(id, title, description, status, priority, dueDate, createdAt,
+                assignedToId == null ? null : new UserRef(assignedToId, assignedToName, assignedToEmail),
+                projectId == null ? null : new ProjectRef(projectId, projectName));
+    }
+}
@@ -0,0 +1,10 @@
+package com.taskmanager.app.event;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    // Raised by the passing of time rather than a write, see TaskDueEvent
+    DUE_SOON,
+    OVERDUE
+}
@@ -0,0 +1,9 @@
+package com.taskmanager.app.event;
+
+/**
+ * Published by ProjectService and UserService for every row they create, change or delete. A deletion is
+ * announced when the row is marked and hidden; its removal later is an {@link EntityPurgedEvent}.
+ * Tasks publish the richer {@link TaskChangedEvent} instead.
+ */
+public record EntityChangedEvent(EntityType type, Long id, ChangeType change) {
+}
@@ -0,0 +1,9 @@
+package com.taskmanager.app.event;
+
+/**
+ * Published when a project or user marked for deletion is finally removed. Its {@link ChangeType#DELETED}
+ * went out when it was marked; only stores that still hold the marked row (shard copies, the change log)
+ * act on this.
+ */
+public record EntityPurgedEvent(EntityType type, Long id) {
+}
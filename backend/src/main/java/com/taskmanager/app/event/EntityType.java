@@ -0,0 +1,7 @@
+package com.taskmanager.app.event;
+
+public enum EntityType {
+    TASK,
+    PROJECT,
+    USER
+}
@@ -0,0 +1,29 @@
+package com.taskmanager.app.event;
+
+/**
+ * Published by TaskService for every task it creates, changes or deletes. {@code before} is null for
+ * a creation and {@code after} is null for a deletion. Listeners that maintain derived state should use
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ */
+public record TaskChangedEvent(TaskSnapshot before, TaskSnapshot after) {
+
+    public static TaskChangedEvent created(TaskSnapshot after) {
+        return new TaskChangedEvent(null, after);
+    }
+
+    public static TaskChangedEvent updated(TaskSnapshot before, TaskSnapshot after) {
+        return new TaskChangedEvent(before, after);
+    }
+
+    public static TaskChangedEvent deleted(TaskSnapshot before) {
+        return new TaskChangedEvent(before, null);
+    }
+
+    public ChangeType changeType() {
+        return before == null ? ChangeType.CREATED : after == null ? ChangeType.DELETED : ChangeType.UPDATED;
+    }
+
+    public Long taskId() {
+        return after != null ? after.id() : before.id();
+    }
+}
@@ -0,0 +1,9 @@
+package com.taskmanager.app.event;
+
+/**
+ * Published by TaskDueDateService when an open task becomes {@link ChangeType#DUE_SOON} or
+ * {@link ChangeType#OVERDUE}: when a day passes, or right away when a change moves its due date there.
+ * {@code task} is the task as it is at that point.
+ */
+public record TaskDueEvent(TaskSnapshot task, ChangeType change) {
+}
@@ -0,0 +1,42 @@
+package com.taskmanager.app.event;
+
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.TaskStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable copy of the task columns that in-memory read models care about. Safe to hand to
+ * listeners running after the transaction (and its entities) are gone.
+ *
+ * <p>{@code version} is the row's version in this image. Listeners run on the committing threads, so two
+ * commits on one task can reach a listener in either order; a read model keeping the latest image must
+ * skip one older than the image it has.
+ */
+public record TaskSnapshot(Long id, String title, String description, TaskStatus status, Priority priority,
+                           LocalDate dueDate, Long assignedToId, Long projectId, Long version) {
+
+    public static TaskSnapshot of(Task task) {
+        return new TaskSnapshot(task.getId(), task.getTitle(), task.getDescription(), task.getStatus(),
+                task.getPriority(), task.getDueDate(),
+                task.getAssignedTo() == null ? null : task.getAssignedTo().getId(),
+                task.getProject() == null ? null : task.getProject().getId(),
+                task.getVersion());
+    }
+
+    public TaskSnapshot withStatus(TaskStatus newStatus) {
+        return new TaskSnapshot(id, title, description, newStatus, priority, dueDate, assignedToId, projectId,
+                version);
+    }
+
+    public TaskSnapshot withAssignedToId(Long newAssignedToId) {
+        return new TaskSnapshot(id, title, description, status, priority, dueDate, newAssignedToId, projectId,
+                version);
+    }
+
+    public TaskSnapshot withVersion(Long newVersion) {
+        return new TaskSnapshot(id, title, description, status, priority, dueDate, assignedToId, projectId,
+                newVersion);
+    }
+}
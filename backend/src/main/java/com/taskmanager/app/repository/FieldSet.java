@@ -0,0 +1,97 @@
+package com.taskmanager.app.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Columns requested with {@code ?fields=}, as attribute paths such as {@code title} or {@code assignedTo.name}.
+ * Naming an association alone ({@code assignedTo}) selects all of its fields. Besides the requested fields,
+ * {@link #columns()} carries hidden ones the query needs anyway: the id of every association that is read,
+ * so a missing association can be told apart from a null column, and keys added with {@link #withHidden}.
+ */
+public final class FieldSet {
+
+    // Catalogs mirror the JSON shape of the full listing; fields of one association must stay contiguous
+    public static final List<String> TASK = List.of("id", "title", "description", "status", "priority", "dueDate",
+            "createdAt", "assignedTo.id", "assignedTo.name", "assignedTo.email", "project.id", "project.name");
+    public static final List<String> PROJECT = List.of("id", "name", "description",
+            "createdBy.id", "createdBy.name", "createdBy.email", "createdAt", "version");
+    public static final List<String> USER = List.of("id", "name", "email", "createdAt", "version");
+
+    private final List<String> columns;
+    private final int visible;
+
+    private FieldSet(List<String> columns, int visible) {
+        this.columns = List.copyOf(columns);
+        this.visible = visible;
+    }
+
+    /**
+     * Null when {@code param} is absent, meaning the caller should serve the full representation.
+     */
+    public static FieldSet parse(String param, List<String> catalog) {
+        if (param == null || param.isBlank()) {
+            return null;
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        for (String token : param.split(",")) {
+            String field = token.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            boolean known = false;
+            for (String path : catalog) {
+                if (path.equals(field) || path.startsWith(field + ".")) {
+                    requested.add(path);
+                    known = true;
+                }
+            }
+            if (!known) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + field);
+            }
+        }
+        if (requested.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fields must name at least one field");
+        }
+        List<String> columns = new ArrayList<>();
+        for (String path : catalog) {
+            if (requested.contains(path)) {
+                columns.add(path);
+            }
+        }
+        int visible = columns.size();
+        for (String path : List.copyOf(columns)) {
+            int dot = path.indexOf('.');
+            if (dot > 0 && !columns.contains(path.substring(0, dot) + ".id")) {
+                columns.add(path.substring(0, dot) + ".id");
+            }
+        }
+        return new FieldSet(columns, visible);
+    }
+
+    public FieldSet withHidden(String... paths) {
+        List<String> extended = new ArrayList<>(columns);
+        for (String path : paths) {
+            if (!extended.contains(path)) {
+                extended.add(path);
+            }
+        }
+        return new FieldSet(extended, visible);
+    }
+
+    /**
+     * Selected paths: the requested ones first, in catalog order, then the hidden ones.
+     */
+    public List<String> columns() {
+        return columns;
+    }
+
+    public int visible() {
+        return visible;
+    }
+}
@@ -1,12 +1,59 @@
 package com.taskmanager.app.repository;
 
 import com.taskmanager.app.domain.Project;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
-    List<Project> findByCreatedById(Long userId);
-}
\ No newline at end of file
+
+    @Override
+    @EntityGraph(attributePaths = "createdBy")
+    List<Project> findAll();
+
+    // Filters on the foreign key column; see TaskRepository.findByAssignedToId
+    @EntityGraph(attributePaths = "createdBy")
+    @Query("select p from Project p where p.createdBy.id = :userId")
+    List<Project> findByCreatedById(@Param("userId") Long userId);
+
+    // The project's version and its creator's; at most one row
+    @Query("select p.version, c.version from Project p left join p.createdBy c where p.id = :id")
+    List<Object[]> findVersionsById(@Param("id") Long id);
+
+    // Deletion jobs. Rows marked deleted are hidden from JPQL by the entity's restriction, so the statements
+    // that must still reach them are native, naming the table they touch for cache invalidation.
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Project p set p.deletedAt = :at, p.version = p.version + 1 where p.id = :id")
+    int markDeleted(@Param("id") Long id, @Param("at") LocalDateTime at);
+
+    @Query(value = "select id from projects where deleted_at is not null order by id", nativeQuery = true)
+    List<Long> findMarkedDeletedIds();
+
+    @Query(value = "select id from projects where created_by_user_id = :userId order by id limit :limit",
+           nativeQuery = true)
+    List<Long> findIdsByCreator(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "projects"))
+    @Query(value = "update projects set created_by_user_id = null, version = version + 1 where id in :ids",
+           nativeQuery = true)
+    int clearCreatorByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "projects"))
+    @Query(value = "delete from projects where id = :id and deleted_at is not null", nativeQuery = true)
+    int purgeMarked(@Param("id") Long id);
+}
@@ -0,0 +1,72 @@
+package com.taskmanager.app.repository;
+
+import com.taskmanager.app.dto.SparseRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse fieldset listings: selects only the requested columns as tuples, never entities. An association is
+ * joined only when one of its non-id fields is requested; its id alone is read from the foreign key.
+ */
+@Repository
+public class SparseRowRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Every row of {@code entity}, in id order.
+     */
+    public List<SparseRow> findAll(Class<?> entity, FieldSet fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(entity);
+        query.multiselect(select(root, fields)).orderBy(cb.asc(root.get("id")));
+        return rows(entityManager.createQuery(query).getResultList(), fields);
+    }
+
+    static List<Selection<?>> select(From<?, ?> root, FieldSet fields) {
+        Map<String, Join<?, ?>> joins = new HashMap<>();
+        for (String path : fields.columns()) {
+            int dot = path.indexOf('.');
+            if (dot > 0 && !path.endsWith(".id")) {
+                joins.computeIfAbsent(path.substring(0, dot), association -> root.join(association, JoinType.LEFT));
+            }
+        }
+        List<Selection<?>> selections = new ArrayList<>(fields.columns().size());
+        for (String path : fields.columns()) {
+            int dot = path.indexOf('.');
+            if (dot < 0) {
+                selections.add(root.get(path));
+            } else {
+                String association = path.substring(0, dot);
+                From<?, ?> from = joins.get(association);
+                selections.add(from != null ? from.get(path.substring(dot + 1))
+                        : root.get(association).get(path.substring(dot + 1)));
+            }
+        }
+        return selections;
+    }
+
+    static List<SparseRow> rows(List<Tuple> tuples, FieldSet fields) {
+        List<SparseRow> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            rows.add(new SparseRow(fields.columns(), fields.visible(), tuple.toArray()));
+        }
+        return rows;
+    }
+}
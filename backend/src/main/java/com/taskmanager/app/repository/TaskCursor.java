@@ -0,0 +1,60 @@
+package com.taskmanager.app.repository;
+
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.dto.SparseRow;
+import com.taskmanager.app.dto.TaskView;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page: the sort key value of that row plus its id.
+ * Clients only ever see the opaque {@link #encode()} form.
+ */
+public record TaskCursor(TaskSort sort, LocalDateTime createdAt, LocalDate dueDate, Priority priority, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static TaskCursor of(TaskSort sort, TaskView last) {
+        return new TaskCursor(sort, last.createdAt(), last.dueDate(), last.priority(), last.id());
+    }
+
+    public static TaskCursor of(TaskSort sort, SparseRow last) {
+        return new TaskCursor(sort, (LocalDateTime) last.get("createdAt"), (LocalDate) last.get("dueDate"),
+                (Priority) last.get("priority"), (Long) last.get("id"));
+    }
+
+    public String encode() {
+        String key = switch (sort) {
+            case CREATED_AT -> createdAt.toString();
+            case DUE_DATE -> dueDate == null ? "" : dueDate.toString();
+            case PRIORITY -> priority.name();
+        };
+        String raw = sort.name() + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String token, TaskSort expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            TaskSort sort = TaskSort.valueOf(parts[0]);
+            if (parts.length != 3 || sort != expectedSort) {
+                throw new IllegalArgumentException("Cursor does not match sort " + expectedSort.getParam());
+            }
+            String key = parts[1];
+            Long id = Long.valueOf(parts[2]);
+            return switch (sort) {
+                case CREATED_AT -> new TaskCursor(sort, LocalDateTime.parse(key), null, null, id);
+                case DUE_DATE -> new TaskCursor(sort, null, key.isEmpty() ? null : LocalDate.parse(key), null, id);
+                case PRIORITY -> new TaskCursor(sort, null, null, Priority.valueOf(key), id);
+            };
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + token, e);
+        }
+    }
+}
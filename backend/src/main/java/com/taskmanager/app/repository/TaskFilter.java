@@ -0,0 +1,16 @@
+package com.taskmanager.app.repository;
+
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.TaskStatus;
+import lombok.Builder;
+
+/**
+ * Optional criteria shared by the task listing endpoints. A null field means "no restriction".
+ */
+@Builder(toBuilder = true)
+public record TaskFilter(TaskStatus status, Priority priority, Long assignedToId, Long projectId) {
+
+    public static TaskFilter none() {
+        return TaskFilter.builder().build();
+    }
+}
@@ -3,16 +3,149 @@ package com.taskmanager.app.repository;
 import com.taskmanager.app.domain.Priority;
 import com.taskmanager.app.domain.Task;
 import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.domain.User;
+import com.taskmanager.app.event.TaskSnapshot;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
+
+    // Associations are LAZY; finders returning entities fetch them in the same query.
+    // The enum-keyed finders have few distinct arguments, so their results go to the query cache.
+
+    @Override
+    @EntityGraph(attributePaths = {"assignedTo", "project", "project.createdBy"})
+    List<Task> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"assignedTo", "project", "project.createdBy"})
+    Optional<Task> findById(Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @EntityGraph(attributePaths = {"assignedTo", "project", "project.createdBy"})
     List<Task> findByStatus(TaskStatus status);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @EntityGraph(attributePaths = {"assignedTo", "project", "project.createdBy"})
     List<Task> findByPriority(Priority priority);
-    List<Task> findByAssignedToId(Long userId);
-    List<Task> findByProjectId(Long projectId);
+
+    // Written out so the filter is on the foreign key column; derived, it would go through the outer join
+    // and the (restricted) referenced table, which rules out the index
+    @EntityGraph(attributePaths = {"assignedTo", "project", "project.createdBy"})
+    @Query("select t from Task t where t.assignedTo.id = :userId")
+    List<Task> findByAssignedToId(@Param("userId") Long userId);
+
+    @EntityGraph(attributePaths = {"assignedTo", "project", "project.createdBy"})
+    @Query("select t from Task t where t.project.id = :projectId")
+    List<Task> findByProjectId(@Param("projectId") Long projectId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @EntityGraph(attributePaths = {"assignedTo", "project", "project.createdBy"})
     List<Task> findByStatusAndPriority(TaskStatus status, Priority priority);
+
+    // Versions a task's representation depends on: its own, its assignee's, its project's and the project
+    // creator's. At most one row.
+    @Query("select t.version, a.version, p.version, c.version from Task t " +
+           "left join t.assignedTo a left join t.project p left join p.createdBy c where t.id = :id")
+    List<Object[]> findVersionsById(@Param("id") Long id);
+
+    @Query("select t.status from Task t where t.id = :id")
+    Optional<TaskStatus> findStatusById(@Param("id") Long id);
+
+    // Read-model rebuilds at startup; the caller must consume the stream inside a transaction and close it
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.taskmanager.app.event.TaskSnapshot(t.id, t.title, t.description, " +
+           "t.status, t.priority, t.dueDate, t.assignedTo.id, t.project.id, t.version) from Task t")
+    Stream<TaskSnapshot> streamSnapshots();
+
+    // Aggregates used to rebuild the in-memory task counters at startup
+    @Query("select t.project.id, t.status, t.priority, count(t) from Task t " +
+           "group by t.project.id, t.status, t.priority")
+    List<Object[]> countByProjectStatusPriority();
+
+    @Query("select t.project.id, t.dueDate, count(t) from Task t " +
+           "where t.status <> com.taskmanager.app.domain.TaskStatus.DONE and t.dueDate is not null " +
+           "group by t.project.id, t.dueDate")
+    List<Object[]> countOpenByProjectAndDueDate();
+
+    // Open tasks with a due date, loaded once at startup into the due-date index
+    @Query("select t.id, t.dueDate, t.version from Task t " +
+           "where t.status <> com.taskmanager.app.domain.TaskStatus.DONE and t.dueDate is not null")
+    List<Object[]> findOpenDueDates();
+
+    // Forward-only cursor for exports; the caller must consume it inside a transaction and close it
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t from Task t left join fetch t.assignedTo left join fetch t.project p " +
+           "left join fetch p.createdBy order by t.id")
+    Stream<Task> streamAllForExport();
+
+    // Set-based bulk updates, by the ids of the rows locked first (see also TaskRepositoryCustom.lockSnapshots).
+    // The persistence context is flushed before and cleared after, so no managed Task keeps a stale status or
+    // assignee.
+
+    // Row images of the tasks a bulk update is about to touch, locked until the update commits
+    String SNAPSHOT = "select new com.taskmanager.app.event.TaskSnapshot(t.id, t.title, t.description, " +
+                      "t.status, t.priority, t.dueDate, t.assignedTo.id, t.project.id, t.version) from Task t ";
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SNAPSHOT + "where t.id in :ids")
+    List<TaskSnapshot> lockSnapshotsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(SNAPSHOT + "where t.id in :ids")
+    List<TaskSnapshot> findSnapshotsByIds(@Param("ids") Collection<Long> ids);
+
+    // Chunks of a project or user deletion, taken in id order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SNAPSHOT + "where t.project.id = :projectId order by t.id")
+    List<TaskSnapshot> lockSnapshotsByProjectId(@Param("projectId") Long projectId, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SNAPSHOT + "where t.assignedTo.id = :userId order by t.id")
+    List<TaskSnapshot> lockSnapshotsByAssigneeId(@Param("userId") Long userId, Limit limit);
+
+    @Query("select count(t) from Task t where t.project.id = :projectId")
+    long countByProjectId(@Param("projectId") Long projectId);
+
+    @Query("select count(t) from Task t where t.assignedTo.id = :userId")
+    long countByAssigneeId(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Task t where t.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Task t set t.status = :newStatus, t.version = t.version + 1 where t.id in :ids")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids, @Param("newStatus") TaskStatus newStatus);
+
+    // Compare-and-set: touches the row only if it still has the expected status (and version, when given)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Task t set t.status = :newStatus, t.version = t.version + 1 " +
+           "where t.id = :id and t.status = :expectedStatus and (:expectedVersion is null or t.version = :expectedVersion)")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("expectedStatus") TaskStatus expectedStatus,
+                            @Param("newStatus") TaskStatus newStatus,
+                            @Param("expectedVersion") Long expectedVersion);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Task t set t.assignedTo = :assignee, t.version = t.version + 1 where t.id in :ids")
+    int updateAssigneeByIds(@Param("ids") Collection<Long> ids, @Param("assignee") User assignee);
 }
\ No newline at end of file
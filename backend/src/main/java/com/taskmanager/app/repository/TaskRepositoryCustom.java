@@ -0,0 +1,35 @@
+package com.taskmanager.app.repository;
+
+import com.taskmanager.app.dto.SparseRow;
+import com.taskmanager.app.dto.TaskView;
+import com.taskmanager.app.event.TaskSnapshot;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TaskRepositoryCustom {
+
+    /**
+     * Keyset page: rows matching {@code filter} strictly after {@code after} (or from the start when null)
+     * in {@code sort} order, at most {@code limit} of them. Never issues an OFFSET, and reads the
+     * assignee and project through joins in the same statement.
+     */
+    List<TaskView> findPage(TaskFilter filter, TaskSort sort, TaskCursor after, int limit);
+
+    /**
+     * The same page reduced to the requested fields, selecting only those columns and joining the assignee
+     * or project only when one of their fields other than the id is requested.
+     */
+    List<SparseRow> findPage(TaskFilter filter, TaskSort sort, TaskCursor after, int limit, FieldSet fields);
+
+    /**
+     * Views of the given tasks in no particular order; ids that no longer exist are skipped.
+     */
+    List<TaskView> findViewsByIds(Collection<Long> ids);
+
+    /**
+     * Row images of the tasks matching {@code filter}, locked until the transaction ends. Only the criteria
+     * that are set go into the statement, so it can use their indexes.
+     */
+    List<TaskSnapshot> lockSnapshots(TaskFilter filter);
+}
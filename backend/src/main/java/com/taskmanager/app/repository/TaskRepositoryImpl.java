@@ -0,0 +1,183 @@
+package com.taskmanager.app.repository;
+
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.User;
+import com.taskmanager.app.dto.SparseRow;
+import com.taskmanager.app.dto.TaskView;
+import com.taskmanager.app.event.TaskSnapshot;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskView> findPage(TaskFilter filter, TaskSort sort, TaskCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskView> query = cb.createQuery(TaskView.class);
+        Root<Task> task = query.from(Task.class);
+        Join<Task, User> assignee = task.join("assignedTo", JoinType.LEFT);
+        Join<Task, Project> project = task.join("project", JoinType.LEFT);
+        query.select(view(cb, task, assignee, project));
+        restrictToPage(cb, query, task, filter, sort, after);
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_CACHEABLE, cacheable(filter, after))
+                .getResultList();
+    }
+
+    @Override
+    public List<SparseRow> findPage(TaskFilter filter, TaskSort sort, TaskCursor after, int limit, FieldSet fields) {
+        // The next cursor is built from the last row, so its sort key and id are read even if not requested
+        FieldSet selected = fields.withHidden("id", sort.getParam());
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> task = query.from(Task.class);
+        query.multiselect(SparseRowRepository.select(task, selected));
+        restrictToPage(cb, query, task, filter, sort, after);
+        return SparseRowRepository.rows(entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_CACHEABLE, cacheable(filter, after))
+                .getResultList(), selected);
+    }
+
+    /**
+     * First pages of the status/priority board filters are requested over and over, so they go to the query
+     * cache; later pages and per-user or per-project listings vary too much to be worth keeping.
+     */
+    private static boolean cacheable(TaskFilter filter, TaskCursor after) {
+        return after == null && filter.assignedToId() == null && filter.projectId() == null;
+    }
+
+    private static void restrictToPage(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Task> task,
+                                       TaskFilter filter, TaskSort sort, TaskCursor after) {
+        List<Predicate> predicates = filterPredicates(cb, task, filter);
+        if (after != null) {
+            predicates.add(afterCursor(cb, task, after));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+
+        Expression<Long> id = task.get("id");
+        switch (sort) {
+            case CREATED_AT -> query.orderBy(cb.asc(task.get("createdAt")), cb.asc(id));
+            case DUE_DATE -> query.orderBy(cb.asc(cb.selectCase().when(cb.isNull(task.get("dueDate")), 1).otherwise(0)),
+                    cb.asc(task.get("dueDate")), cb.asc(id));
+            case PRIORITY -> query.orderBy(cb.asc(priorityRank(cb, task)), cb.asc(id));
+        }
+    }
+
+    @Override
+    public List<TaskView> findViewsByIds(Collection<Long> ids) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskView> query = cb.createQuery(TaskView.class);
+        Root<Task> task = query.from(Task.class);
+        Join<Task, User> assignee = task.join("assignedTo", JoinType.LEFT);
+        Join<Task, Project> project = task.join("project", JoinType.LEFT);
+        query.select(view(cb, task, assignee, project)).where(task.get("id").in(ids));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<TaskSnapshot> lockSnapshots(TaskFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskSnapshot> query = cb.createQuery(TaskSnapshot.class);
+        Root<Task> task = query.from(Task.class);
+        query.select(cb.construct(TaskSnapshot.class,
+                        task.get("id"), task.get("title"), task.get("description"),
+                        task.get("status"), task.get("priority"), task.get("dueDate"),
+                        task.get("assignedTo").get("id"), task.get("project").get("id"), task.get("version")))
+                .where(filterPredicates(cb, task, filter).toArray(Predicate[]::new));
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    private static CompoundSelection<TaskView> view(CriteriaBuilder cb, Root<Task> task,
+                                                    Join<Task, User> assignee, Join<Task, Project> project) {
+        return cb.construct(TaskView.class,
+                task.get("id"), task.get("title"), task.get("description"),
+                task.get("status"), task.get("priority"), task.get("dueDate"), task.get("createdAt"),
+                assignee.get("id"), assignee.get("name"), assignee.get("email"),
+                project.get("id"), project.get("name"));
+    }
+
+    static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Task> task, TaskFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.status() != null) {
+            predicates.add(cb.equal(task.get("status"), filter.status()));
+        }
+        if (filter.priority() != null) {
+            predicates.add(cb.equal(task.get("priority"), filter.priority()));
+        }
+        if (filter.assignedToId() != null) {
+            predicates.add(cb.equal(task.get("assignedTo").get("id"), filter.assignedToId()));
+        }
+        if (filter.projectId() != null) {
+            predicates.add(cb.equal(task.get("project").get("id"), filter.projectId()));
+        }
+        return predicates;
+    }
+
+    private static Predicate afterCursor(CriteriaBuilder cb, Root<Task> task, TaskCursor after) {
+        Expression<Long> id = task.get("id");
+        return switch (after.sort()) {
+            case CREATED_AT -> {
+                Expression<LocalDateTime> createdAt = task.get("createdAt");
+                yield cb.or(cb.greaterThan(createdAt, after.createdAt()),
+                        cb.and(cb.equal(createdAt, after.createdAt()), cb.greaterThan(id, after.id())));
+            }
+            case DUE_DATE -> {
+                // Tasks without a due date sort last, so a null cursor key only leaves other undated rows.
+                Expression<LocalDate> dueDate = task.get("dueDate");
+                if (after.dueDate() == null) {
+                    yield cb.and(cb.isNull(dueDate), cb.greaterThan(id, after.id()));
+                }
+                yield cb.or(cb.greaterThan(dueDate, after.dueDate()),
+                        cb.and(cb.equal(dueDate, after.dueDate()), cb.greaterThan(id, after.id())),
+                        cb.isNull(dueDate));
+            }
+            case PRIORITY -> {
+                Expression<Integer> rank = priorityRank(cb, task);
+                int afterRank = rank(after.priority());
+                yield cb.or(cb.greaterThan(rank, afterRank),
+                        cb.and(cb.equal(rank, afterRank), cb.greaterThan(id, after.id())));
+            }
+        };
+    }
+
+    /**
+     * Priorities are stored as strings, so ordering by the column would be alphabetical; rank them HIGH first instead.
+     */
+    private static Expression<Integer> priorityRank(CriteriaBuilder cb, Root<Task> task) {
+        CriteriaBuilder.SimpleCase<Priority, Integer> rank = cb.selectCase(task.get("priority"));
+        for (Priority priority : Priority.values()) {
+            rank.when(priority, rank(priority));
+        }
+        return rank.otherwise(Priority.values().length);
+    }
+
+    private static int rank(Priority priority) {
+        return Priority.values().length - 1 - priority.ordinal();
+    }
+}
@@ -0,0 +1,252 @@
+package com.taskmanager.app.repository;
+
+import com.taskmanager.app.config.ShardRouting;
+import com.taskmanager.app.domain.TaskIdGenerator;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Where task rows live when {@code taskmanager.sharding.shard-urls} spreads them over several databases,
+ * and how task queries reach them (see {@code ShardingConfig}).
+ *
+ * <p>A transaction talks to one shard. Work on one task or one project routes the caller's transaction
+ * there before its first statement. Queries without a shard key scatter to every shard in parallel, each in
+ * its own read-only transaction, and gather the rows, merged into one order and cut to the limit. Writes that
+ * span shards run one transaction per shard, so they are atomic per shard only.
+ *
+ * <p>Unsharded, routing does nothing and everything runs in the caller's transaction as before.
+ */
+@Component
+public class TaskShards {
+
+    private final int count;
+    private final TransactionTemplate readOnly;
+    private final TransactionTemplate readWrite;
+    private final ExecutorService scatter;
+
+    public TaskShards(PlatformTransactionManager transactionManager,
+                      @Value("${taskmanager.sharding.shard-urls:}") List<String> shardUrls,
+                      @Value("${taskmanager.sharding.maximum-pool-size:10}") int poolSize) {
+        this.count = shardUrls.size() + 1;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readWrite = new TransactionTemplate(transactionManager);
+        readWrite.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger threads = new AtomicInteger();
+        // Enough threads for every shard's pool to be busy at once
+        this.scatter = count == 1 ? null : Executors.newFixedThreadPool(count * poolSize, work -> {
+            Thread thread = new Thread(work, "task-shard-scatter-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scatter != null) {
+            scatter.shutdownNow();
+        }
+    }
+
+    public boolean isSharded() {
+        return count > 1;
+    }
+
+    public void routeToTask(Long taskId) {
+        if (isSharded()) {
+            ShardRouting.bind(TaskIdGenerator.shardOfTask(taskId));
+        }
+    }
+
+    public void routeToProject(Long projectId) {
+        if (isSharded()) {
+            ShardRouting.bind(TaskIdGenerator.shardOfProject(projectId, count));
+        }
+    }
+
+    /**
+     * Tasks stay on the shard they were created on, so they can only move to projects on that shard.
+     * Leaving a task without a project is always possible.
+     */
+    public void requireSameShard(Long taskId, Long projectId) {
+        if (isSharded() && projectId != null
+                && TaskIdGenerator.shardOfProject(projectId, count) != TaskIdGenerator.shardOfTask(taskId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Task " + taskId + " cannot move to project " + projectId + ", which is on another shard");
+        }
+    }
+
+    /**
+     * Rows of {@code query} in {@code order}, at most {@code limit}: from the shard holding the project's
+     * tasks, or from all shards when {@code projectId} is null. Each shard must return its rows in
+     * {@code order} and cut to {@code limit} itself; unsharded, the query's result is returned as is.
+     */
+    public <T> List<T> find(Long projectId, Supplier<List<T>> query, Comparator<? super T> order, int limit) {
+        if (!isSharded()) {
+            return query.get();
+        }
+        if (projectId != null) {
+            routeToProject(projectId);
+            return query.get();
+        }
+        List<T> rows = gather(allShards(), shard -> query.get());
+        if (order != null) {
+            rows.sort(order);
+        }
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
+    /**
+     * All rows of {@code query} across shards, in {@code order}; a null order leaves them grouped by shard.
+     */
+    public <T> List<T> findAll(Supplier<List<T>> query, Comparator<? super T> order) {
+        return find(null, query, order, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Rows of {@code query} for the given task ids, each shard asked only for its own ids; in no particular order.
+     */
+    public <T> List<T> findByIds(Collection<Long> taskIds, Function<List<Long>, List<T>> query) {
+        if (!isSharded()) {
+            return query.apply(List.copyOf(taskIds));
+        }
+        Map<Integer, List<Long>> byShard = byTask(taskIds);
+        return gather(byShard.keySet(), shard -> query.apply(byShard.get(shard)));
+    }
+
+    /**
+     * Runs {@code work} against every shard in turn, with the transactions it opens on that shard.
+     */
+    public void forEachShard(Runnable work) {
+        for (int shard : allShards()) {
+            ShardRouting.on(shard, () -> {
+                work.run();
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Applies a bulk update to the shard holding the project's tasks, or to every shard when
+     * {@code projectId} is null, and returns the number of rows updated.
+     */
+    public int update(Long projectId, IntSupplier update) {
+        if (!isSharded()) {
+            return update.getAsInt();
+        }
+        if (projectId != null) {
+            routeToProject(projectId);
+            return update.getAsInt();
+        }
+        return write(allShards(), shard -> update.getAsInt()).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Applies a bulk update to the given tasks, each shard to its own ids, and returns the number of rows updated.
+     */
+    public int updateByIds(Collection<Long> taskIds, ToIntFunction<List<Long>> update) {
+        if (!isSharded()) {
+            return update.applyAsInt(List.copyOf(taskIds));
+        }
+        Map<Integer, List<Long>> byShard = byTask(taskIds);
+        return write(byShard.keySet(), shard -> update.applyAsInt(byShard.get(shard))).stream()
+                .mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Inserts {@code items} on the shards of their projects, each shard's share in one call of {@code insert},
+     * and returns the concatenated results.
+     */
+    public <T, R> List<R> insert(List<T> items, Function<T, Long> projectIdOf, Function<List<T>, List<R>> insert) {
+        if (!isSharded()) {
+            return insert.apply(items);
+        }
+        Map<Integer, List<T>> byShard = new LinkedHashMap<>();
+        for (T item : items) {
+            int shard = TaskIdGenerator.shardOfProject(projectIdOf.apply(item), count);
+            byShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(item);
+        }
+        List<R> results = new ArrayList<>(items.size());
+        write(byShard.keySet(), shard -> insert.apply(byShard.get(shard))).forEach(results::addAll);
+        return results;
+    }
+
+    private List<Integer> allShards() {
+        return IntStream.range(0, count).boxed().toList();
+    }
+
+    private Map<Integer, List<Long>> byTask(Collection<Long> taskIds) {
+        Map<Integer, List<Long>> byShard = new LinkedHashMap<>();
+        for (Long taskId : taskIds) {
+            byShard.computeIfAbsent(TaskIdGenerator.shardOfTask(taskId), shard -> new ArrayList<>()).add(taskId);
+        }
+        return byShard;
+    }
+
+    private <T> List<T> gather(Collection<Integer> shards, IntFunction<List<T>> query) {
+        List<Future<List<T>>> parts = new ArrayList<>(shards.size());
+        for (int shard : shards) {
+            parts.add(scatter.submit(() -> ShardRouting.on(shard, () -> readOnly.execute(status -> query.apply(shard)))));
+        }
+        List<T> rows = new ArrayList<>();
+        for (Future<List<T>> part : parts) {
+            rows.addAll(join(part));
+        }
+        return rows;
+    }
+
+    /**
+     * A write on one shard joins the caller's transaction; across several, each shard commits on its own.
+     */
+    private <R> List<R> write(Collection<Integer> shards, IntFunction<R> work) {
+        if (shards.size() == 1) {
+            int shard = shards.iterator().next();
+            ShardRouting.bind(shard);
+            return List.of(work.apply(shard));
+        }
+        List<R> results = new ArrayList<>(shards.size());
+        for (int shard : shards) {
+            results.add(ShardRouting.on(shard, () -> readWrite.execute(status -> work.apply(shard))));
+        }
+        return results;
+    }
+
+    private static <T> T join(Future<T> part) {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.taskmanager.app.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Comparator;
+
+/**
+ * Orderings supported by keyset pagination. Every ordering is made total by using the task id as tie-breaker.
+ */
+public enum TaskSort {
+    CREATED_AT("createdAt"),
+    DUE_DATE("dueDate"),
+    PRIORITY("priority");
+
+    private final String param;
+
+    TaskSort(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    /**
+     * This ordering over the rows' cursors, the same as the ORDER BY of a page query; used to merge pages
+     * read from several shards.
+     */
+    public Comparator<TaskCursor> order() {
+        Comparator<TaskCursor> key = switch (this) {
+            case CREATED_AT -> Comparator.comparing(TaskCursor::createdAt);
+            case DUE_DATE -> Comparator.comparing(TaskCursor::dueDate, Comparator.nullsLast(Comparator.naturalOrder()));
+            // HIGH first, as ranked by the page query
+            case PRIORITY -> Comparator.comparing(TaskCursor::priority, Comparator.reverseOrder());
+        };
+        return key.thenComparing(TaskCursor::id);
+    }
+
+    public static TaskSort fromParam(String param) {
+        if (param == null || param.isBlank()) {
+            return CREATED_AT;
+        }
+        for (TaskSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(param)) {
+                return sort;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + param);
+    }
+}
@@ -1,13 +1,45 @@
 package com.taskmanager.app.repository;
 
 import com.taskmanager.app.domain.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    // Cached like the task finders: the id comes from the query cache until the users table changes, the
+    // user from the entity cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
-    boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    // Marked rows keep their email until purged, and the unique constraint sees them
+    @Query(value = "select exists(select 1 from users where email = :email)", nativeQuery = true)
+    boolean existsByEmailIncludingDeleted(@Param("email") String email);
+
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Deletion jobs; see ProjectRepository for why some of these are native
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.deletedAt = :at, u.version = u.version + 1 where u.id = :id")
+    int markDeleted(@Param("id") Long id, @Param("at") LocalDateTime at);
+
+    @Query(value = "select id from users where deleted_at is not null order by id", nativeQuery = true)
+    List<Long> findMarkedDeletedIds();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "delete from users where id = :id and deleted_at is not null", nativeQuery = true)
+    int purgeMarked(@Param("id") Long id);
+}
@@ -0,0 +1,50 @@
+package com.taskmanager.app.service;
+
+import com.taskmanager.app.dto.CacheStatsView;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size and counters of the Hibernate second-level cache regions, which also serve the user and project
+ * lookups on the task write path. Hit, miss and put counters stay at zero unless Hibernate statistics are
+ * enabled; evictions (for size or age) are counted by the regions themselves.
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheStatsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager hibernateCacheManager;
+
+    public Map<String, CacheStatsView> stats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, CacheStatsView> stats = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            long hits = regionStatistics.getHitCount();
+            long misses = regionStatistics.getMissCount();
+            com.github.benmanes.caffeine.cache.Cache<?, ?> cache = caffeine(region);
+            stats.put(region, new CacheStatsView(cache == null ? 0 : cache.estimatedSize(), hits, misses,
+                    hits + misses == 0 ? 1.0 : (double) hits / (hits + misses), regionStatistics.getPutCount(),
+                    cache == null ? 0 : cache.stats().evictionCount()));
+        }
+        return stats;
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine(String region) {
+        Cache<Object, Object> cache = hibernateCacheManager.getCache(region);
+        return cache == null ? null : cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+    }
+}
@@ -0,0 +1,182 @@
+package com.taskmanager.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.taskmanager.app.dto.DeletionJob;
+import com.taskmanager.app.event.EntityType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.IntSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Deletion of projects and users, which thousands of tasks may reference.
+ *
+ * <p>A delete request only marks the row, which hides it from every read at once, and queues a job. A single
+ * worker then deletes the project's tasks, or unassigns the user's tasks and clears them as creator of their
+ * projects, {@code chunk-size} rows per transaction with {@code throttle} between chunks, so regular traffic
+ * never waits behind one huge transaction. The row itself is removed last. Jobs are kept for {@code job-ttl}
+ * after they last moved; rows found still marked at startup, from a job that was cut short, are taken up again.
+ */
+@Slf4j
+@Service
+public class CascadeDeletionService {
+
+    private static final int PURGE_ATTEMPTS = 3;
+
+    private final ProjectService projectService;
+    private final UserService userService;
+    private final TaskService taskService;
+    private final int chunkSize;
+    private final long throttleMillis;
+    private final Cache<Key, DeletionJob> jobs;
+    private final ExecutorService worker;
+
+    public CascadeDeletionService(
+            ProjectService projectService,
+            UserService userService,
+            TaskService taskService,
+            @Value("${taskmanager.deletion.chunk-size:500}") int chunkSize,
+            @Value("${taskmanager.deletion.throttle:50ms}") Duration throttle,
+            @Value("${taskmanager.deletion.job-ttl:1h}") Duration jobTtl) {
+        this.projectService = projectService;
+        this.userService = userService;
+        this.taskService = taskService;
+        this.chunkSize = chunkSize;
+        this.throttleMillis = throttle.toMillis();
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(jobTtl)
+                .build();
+        this.worker = Executors.newSingleThreadExecutor(work -> new Thread(work, "cascade-deletion"));
+    }
+
+    private record Key(EntityType type, Long id) {
+    }
+
+    public DeletionJob deleteProject(Long id) {
+        return start(EntityType.PROJECT, id, () -> projectService.markProjectDeleted(id));
+    }
+
+    public DeletionJob deleteUser(Long id) {
+        return start(EntityType.USER, id, () -> userService.markUserDeleted(id));
+    }
+
+    public DeletionJob getJob(EntityType type, Long id) {
+        DeletionJob job = jobs.getIfPresent(new Key(type, id));
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "No deletion of " + type.name().toLowerCase() + " " + id + " is known");
+        }
+        return job;
+    }
+
+    // Projects first: a user's deletion has to clear them as creator of the marked projects too
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeMarked() {
+        projectService.getMarkedDeletedProjectIds().forEach(id -> start(EntityType.PROJECT, id, () -> { }));
+        userService.getMarkedDeletedUserIds().forEach(id -> start(EntityType.USER, id, () -> { }));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Interrupts the throttle sleep; the interrupted job resumes at the next startup
+        worker.shutdownNow();
+        worker.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the job already running for the row, or marks the row with {@code mark} and queues a new one.
+     * Both happen under the job's entry, so concurrent requests for the same row share one job.
+     */
+    private DeletionJob start(EntityType type, Long id, Runnable mark) {
+        Key key = new Key(type, id);
+        AtomicBoolean queued = new AtomicBoolean();
+        DeletionJob job = jobs.asMap().compute(key, (k, current) -> {
+            if (current != null && current.status() == DeletionJob.Status.RUNNING) {
+                return current;
+            }
+            mark.run();
+            queued.set(true);
+            return DeletionJob.running(type, id, type == EntityType.PROJECT
+                    ? taskService.countTasksOfProject(id)
+                    : taskService.countTasksOfAssignee(id));
+        });
+        if (queued.get()) {
+            worker.execute(() -> run(key));
+            log.info("Queued deletion of {} {} with {} tasks", type.name().toLowerCase(), id, job.totalTasks());
+        }
+        return job;
+    }
+
+    private void run(Key key) {
+        long start = System.nanoTime();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                if (key.type() == EntityType.PROJECT) {
+                    drain(key, () -> taskService.deleteProjectTasks(key.id(), chunkSize), DeletionJob::addTasks);
+                } else {
+                    drain(key, () -> taskService.unassignUserTasks(key.id(), chunkSize), DeletionJob::addTasks);
+                    drain(key, () -> projectService.detachProjectsOfCreator(key.id(), chunkSize),
+                            DeletionJob::addProjects);
+                }
+                try {
+                    purge(key);
+                    break;
+                } catch (DataIntegrityViolationException e) {
+                    // A write that began before the row was marked still added a reference; go round again
+                    if (attempt == PURGE_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+            DeletionJob job = update(key, DeletionJob::complete);
+            log.info("Deleted {} {} in {} ms: {} tasks, {} projects detached", key.type().name().toLowerCase(),
+                    key.id(), (System.nanoTime() - start) / 1_000_000, job.tasksDone(), job.projectsDetached());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Deletion of {} {} stopped by shutdown", key.type().name().toLowerCase(), key.id());
+        } catch (RuntimeException e) {
+            log.warn("Deletion of {} {} failed", key.type().name().toLowerCase(), key.id(), e);
+            update(key, job -> job.fail(e.getMessage()));
+        }
+    }
+
+    /**
+     * Runs {@code chunk}, one committed transaction per call, until it finds nothing left to do.
+     */
+    private void drain(Key key, IntSupplier chunk, BiFunction<DeletionJob, Integer, DeletionJob> progress)
+            throws InterruptedException {
+        int done;
+        while ((done = chunk.getAsInt()) > 0) {
+            int count = done;
+            update(key, job -> progress.apply(job, count));
+            Thread.sleep(throttleMillis);
+        }
+    }
+
+    private void purge(Key key) {
+        if (key.type() == EntityType.PROJECT) {
+            projectService.purgeProject(key.id());
+        } else {
+            userService.purgeUser(key.id());
+        }
+    }
+
+    private DeletionJob update(Key key, UnaryOperator<DeletionJob> change) {
+        return jobs.asMap().compute(key, (k, job) -> change.apply(job));
+    }
+}
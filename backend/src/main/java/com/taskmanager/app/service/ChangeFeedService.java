@@ -0,0 +1,313 @@
+package com.taskmanager.app.service;
+
+import com.taskmanager.app.dto.ChangeNotice;
+import com.taskmanager.app.event.EntityChangedEvent;
+import com.taskmanager.app.event.EntityType;
+import com.taskmanager.app.event.TaskChangedEvent;
+import com.taskmanager.app.event.TaskDueEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed task, project and user changes to SSE subscribers, along with due-soon and overdue
+ * notices for tasks.
+ *
+ * <p>The last {@code history-size} notices are kept in a ring buffer so a reconnecting client can resume
+ * from its {@code Last-Event-ID}. If that id is older than the buffer (or from a previous run) the client
+ * gets a {@code reset} event and should reload its lists. Each subscriber has a bounded queue drained on
+ * one of {@code sender-threads} threads; a subscriber whose queue overflows is disconnected rather than
+ * slowing down writers or holding memory, and will resume from the ring buffer when it reconnects.
+ *
+ * <p>A send to a client that stopped reading blocks its sender thread until the container's write timeout.
+ * Such a subscriber is dropped once one send has taken longer than {@code send-timeout}, so its queue stops
+ * growing; the blocked thread completes the stream when the write finally fails.
+ */
+@Slf4j
+@Service
+public class ChangeFeedService {
+
+    static final String CHANGE_EVENT = "change";
+    static final String RESET_EVENT = "reset";
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final int subscriberBuffer;
+    private final Entry[] history;
+    private long lastSeq;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender;
+    private final Duration sendTimeout;
+
+    public ChangeFeedService(
+            @Value("${taskmanager.changes.history-size:4096}") int historySize,
+            @Value("${taskmanager.changes.subscriber-buffer:512}") int subscriberBuffer,
+            @Value("${taskmanager.changes.sender-threads:4}") int senderThreads,
+            @Value("${taskmanager.changes.send-timeout:PT10S}") Duration sendTimeout) {
+        this.history = new Entry[historySize];
+        this.subscriberBuffer = subscriberBuffer;
+        this.sendTimeout = sendTimeout;
+        AtomicInteger threads = new AtomicInteger();
+        // Each subscriber has at most one drain queued or running, so the queue is bounded by the subscribers
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private record Entry(long seq, String id, ChangeNotice notice) {
+    }
+
+    // Ahead of listeners that raise follow-up notices, such as due dates, so the change itself comes first
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        publish(new ChangeNotice(EntityType.TASK, event.taskId(), event.changeType(), event.after()));
+    }
+
+    @TransactionalEventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        publish(new ChangeNotice(event.type(), event.id(), event.change(), null));
+    }
+
+    @EventListener
+    public void onTaskDue(TaskDueEvent event) {
+        publish(new ChangeNotice(EntityType.TASK, event.task().id(), event.change(), event.task()));
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter();
+        Subscriber subscriber;
+        synchronized (this) {
+            List<Entry> replay = replayAfter(lastEventId);
+            subscriber = new Subscriber(emitter, subscriberBuffer + (replay == null ? 1 : replay.size()));
+            if (replay == null) {
+                subscriber.offer(null);
+            } else {
+                replay.forEach(subscriber::offer);
+            }
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Comment line every few seconds, so proxies keep idle streams open and dead clients are noticed.
+     */
+    @Scheduled(fixedRateString = "${taskmanager.changes.heartbeat:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    /**
+     * Drops subscribers stuck in one send for longer than {@code send-timeout}; checked every
+     * {@code send-timeout}, so a stalled client is let go within twice that.
+     */
+    @Scheduled(fixedRateString = "${taskmanager.changes.send-timeout:PT10S}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.stalled(now, sendTimeout.toNanos())) {
+                log.info("Disconnecting change feed subscriber stuck in a send for over {}", sendTimeout);
+                subscriber.close();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        sender.shutdown();
+    }
+
+    private synchronized void publish(ChangeNotice notice) {
+        long seq = ++lastSeq;
+        Entry entry = new Entry(seq, bootId + "-" + seq, notice);
+        history[(int) (seq % history.length)] = entry;
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(entry)) {
+                log.info("Disconnecting slow change feed subscriber at event {}", entry.id());
+                subscriber.close();
+            }
+        }
+    }
+
+    /**
+     * Retained entries after {@code lastEventId}, or null when the client missed events that are no longer
+     * retained and has to reload. Caller holds the monitor.
+     */
+    private List<Entry> replayAfter(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return List.of();
+        }
+        long seq = parseSeq(lastEventId);
+        long oldest = Math.max(1, lastSeq - history.length + 1);
+        if (seq < 0 || seq > lastSeq || seq < oldest - 1) {
+            return null;
+        }
+        List<Entry> replay = new ArrayList<>((int) (lastSeq - seq));
+        for (long next = seq + 1; next <= lastSeq; next++) {
+            replay.add(history[(int) (next % history.length)]);
+        }
+        return replay;
+    }
+
+    private long parseSeq(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(bootId)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private final class Subscriber {
+
+        private static final long NOT_SENDING = Long.MIN_VALUE;
+
+        private final SseEmitter emitter;
+        private final int capacity;
+        // A null entry stands for the reset event
+        private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+        private boolean reset;
+        private boolean heartbeat;
+        private boolean draining;
+        private boolean closed;
+        private volatile long sendStarted = NOT_SENDING;
+
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.capacity = capacity;
+        }
+
+        boolean offer(Entry entry) {
+            synchronized (this) {
+                if (closed) {
+                    return true;
+                }
+                if (entry == null) {
+                    reset = true;
+                } else if (queue.size() >= capacity) {
+                    return false;
+                } else {
+                    queue.add(entry);
+                }
+                if (!startDrain()) {
+                    return true;
+                }
+            }
+            sender.execute(this::drain);
+            return true;
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                heartbeat = true;
+                if (!startDrain()) {
+                    return;
+                }
+            }
+            sender.execute(this::drain);
+        }
+
+        private boolean startDrain() {
+            if (draining) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+
+        boolean stalled(long now, long timeoutNanos) {
+            long started = sendStarted;
+            return started != NOT_SENDING && now - started > timeoutNanos;
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    if (closed) {
+                        draining = false;
+                        break;
+                    }
+                    if (reset) {
+                        reset = false;
+                        event = SseEmitter.event().name(RESET_EVENT).data("{}");
+                    } else if (!queue.isEmpty()) {
+                        Entry entry = queue.poll();
+                        event = SseEmitter.event().id(entry.id()).name(CHANGE_EVENT).data(entry.notice());
+                    } else if (heartbeat) {
+                        heartbeat = false;
+                        event = SseEmitter.event().comment("");
+                    } else {
+                        draining = false;
+                        return;
+                    }
+                }
+                sendStarted = System.nanoTime();
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                } finally {
+                    sendStarted = NOT_SENDING;
+                }
+            }
+            // Closed while draining: no send can be in progress on this stream any more
+            emitter.complete();
+        }
+
+        void close() {
+            boolean completeNow;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                queue.clear();
+                // A running drain completes the stream itself once its current send returns
+                completeNow = !draining;
+            }
+            subscribers.remove(this);
+            if (completeNow) {
+                // Not on the caller's thread, which may be a writer's
+                sender.execute(emitter::complete);
+            }
+        }
+    }
+}
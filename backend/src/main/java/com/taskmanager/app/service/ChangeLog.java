@@ -0,0 +1,197 @@
+package com.taskmanager.app.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of committed row changes, split into segments named after their first sequence number.
+ * Each record is {@code length, payload, crc32(payload)} where the payload starts with its sequence number;
+ * replay stops at the first torn or corrupt record of a segment. Appends are forced to disk before they return.
+ * A new segment is started whenever a snapshot is taken, so segments wholly covered by a snapshot can be
+ * deleted as a unit, and a segment left torn by a failed append only loses records that snapshot covers.
+ */
+class ChangeLog implements Closeable {
+
+    private static final String PREFIX = "changes-";
+    private static final String SUFFIX = ".log";
+
+    @FunctionalInterface
+    interface RecordHandler {
+        void apply(long seq, DataInputStream body) throws Exception;
+    }
+
+    private final Path dir;
+    private FileChannel channel;
+    private DataOutputStream out;
+    private long lastSeq;
+    private boolean failed;
+
+    ChangeLog(Path dir) {
+        this.dir = dir;
+    }
+
+    synchronized void open(long afterSeq) throws IOException {
+        lastSeq = afterSeq;
+        startSegment();
+    }
+
+    synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Appends one record per body and forces them to disk together. Bodies are numbered in order. After a
+     * failure the segment may end in a torn record, so nothing can be relied on until the next {@link #rotate}.
+     */
+    synchronized void append(List<byte[]> bodies) throws IOException {
+        if (out == null) {
+            throw new IOException("Change log is closed");
+        }
+        try {
+            write(bodies);
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    private void write(List<byte[]> bodies) throws IOException {
+        for (byte[] body : bodies) {
+            long seq = ++lastSeq;
+            byte[] payload = new byte[Long.BYTES + body.length];
+            for (int i = 0; i < Long.BYTES; i++) {
+                payload[i] = (byte) (seq >>> (56 - 8 * i));
+            }
+            System.arraycopy(body, 0, payload, Long.BYTES, body.length);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            out.writeInt(payload.length);
+            out.write(payload);
+            out.writeInt((int) crc.getValue());
+        }
+        out.flush();
+        channel.force(false);
+    }
+
+    /**
+     * Closes the current segment and starts a new one, so everything up to the returned sequence number is
+     * in closed segments.
+     */
+    synchronized long rotate() throws IOException {
+        try {
+            out.close();
+        } catch (IOException e) {
+            // The segment already failed an append; its tail is lost either way
+            if (!failed) {
+                throw e;
+            }
+        }
+        failed = false;
+        startSegment();
+        return lastSeq;
+    }
+
+    /**
+     * Deletes segments that contain nothing after {@code seq}.
+     */
+    synchronized void deleteSegmentsThrough(long seq) throws IOException {
+        List<Path> segments = segments(dir);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (startSeq(segments.get(i + 1)) <= seq + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private void startSegment() throws IOException {
+        Path segment = dir.resolve(String.format("%s%019d%s", PREFIX, lastSeq + 1, SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+    }
+
+    /**
+     * Feeds every intact record after {@code afterSeq} to {@code handler}, in order, and returns the last
+     * sequence number seen (or {@code afterSeq} if there was nothing newer).
+     */
+    static long replay(Path dir, long afterSeq, RecordHandler handler) throws Exception {
+        long last = afterSeq;
+        long expectedNext = -1;
+        for (Path segment : segments(dir)) {
+            long start = startSeq(segment);
+            if (expectedNext >= 0 && start > expectedNext && start - 1 > last) {
+                // A gap means an earlier segment lost its tail; unless the snapshot covers the lost records,
+                // nothing after it can be trusted
+                break;
+            }
+            long segmentLast = start - 1;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment), 64 * 1024))) {
+                byte[] payload;
+                while ((payload = readRecord(in)) != null) {
+                    DataInputStream body = new DataInputStream(new ByteArrayInputStream(payload));
+                    long seq = body.readLong();
+                    segmentLast = seq;
+                    if (seq > last) {
+                        handler.apply(seq, body);
+                        last = seq;
+                    }
+                }
+            }
+            expectedNext = segmentLast + 1;
+        }
+        return last;
+    }
+
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length < Long.BYTES || length > 16 * 1024 * 1024) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            int expected = in.readInt();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == expected ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static List<Path> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(PREFIX)
+                            && f.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long startSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
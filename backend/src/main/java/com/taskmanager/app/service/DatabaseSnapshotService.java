@@ -0,0 +1,608 @@
+package com.taskmanager.app.service;
+
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.User;
+import com.taskmanager.app.event.EntityChangedEvent;
+import com.taskmanager.app.event.EntityPurgedEvent;
+import com.taskmanager.app.event.EntityType;
+import com.taskmanager.app.event.TaskChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Keeps the in-memory database across restarts when {@code taskmanager.persistence.enabled=true}.
+ *
+ * <p>Snapshots are written periodically and on shutdown as binary files with a CRC32 trailer. Between
+ * snapshots every committed change is appended to a {@link ChangeLog} as a full row image (or a delete), read
+ * back after commit for the ids the services' change events name. Replaying row images is idempotent, so a
+ * snapshot does not have to be a consistent read: anything that changed while it was being written is also
+ * in the log after the snapshot's sequence number.
+ *
+ * <p>A committed change that cannot be logged leaves the log broken: it is logged as an error, writes that
+ * would need logging are refused, and a snapshot is taken at once (retried until it succeeds), since only a
+ * snapshot started after the failure covers the lost change. Writes resume once it is on disk.
+ *
+ * <p>At startup, after Hibernate has created the schema and before the in-memory read models rebuild, the
+ * newest intact snapshot is bulk-loaded with batched inserts while secondary indexes and referential checks
+ * are off, the log is replayed on top, and then the indexes are created.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "taskmanager.persistence.enabled", havingValue = "true")
+public class DatabaseSnapshotService implements InitializingBean, DisposableBean {
+
+    private static final int MAGIC = 0x544d534e;
+    private static final int FORMAT_VERSION = 2;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int PAGE_SIZE = 10_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int LOOKUP_CHUNK = 1_000;
+    private static final long REPAIR_RETRY_SECONDS = 5;
+    private static final Class<?>[] ENTITIES = {User.class, Project.class, Task.class};
+
+    private final DataSource dataSource;
+    private final Path dir;
+    private final int snapshotsKept;
+    private final ChangeLog changeLog;
+    // Highest id each table has ever used, so ids of deleted rows are not handed out again after a restore
+    private final long[] idHighWater = new long[SnapshotTable.values().length];
+    // The log is broken while a failure is newer than the last snapshot started after one
+    private final AtomicLong logFailures = new AtomicLong();
+    private volatile long failuresCovered;
+    private final AtomicBoolean repairQueued = new AtomicBoolean();
+    private final ScheduledExecutorService repair =
+            Executors.newSingleThreadScheduledExecutor(work -> new Thread(work, "snapshot-repair"));
+
+    public DatabaseSnapshotService(
+            DataSource dataSource,
+            // Schema must exist before restore
+            EntityManagerFactory entityManagerFactory,
+            @Value("${taskmanager.persistence.dir:./data}") Path dir,
+            @Value("${taskmanager.persistence.snapshots-kept:2}") int snapshotsKept) {
+        this.dataSource = dataSource;
+        this.dir = dir;
+        this.snapshotsKept = Math.max(1, snapshotsKept);
+        this.changeLog = new ChangeLog(dir);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Files.createDirectories(dir);
+        long start = System.nanoTime();
+        long lastSeq = restore();
+        changeLog.open(lastSeq);
+        log.info("Restored database up to change {} in {} ms", lastSeq, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        pendingChanges().add(EntityType.TASK, event.taskId());
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        pendingChanges().add(event.type(), event.id());
+    }
+
+    @EventListener
+    public void onEntityPurged(EntityPurgedEvent event) {
+        pendingChanges().add(event.type(), event.id());
+    }
+
+    @Scheduled(fixedDelayString = "${taskmanager.persistence.snapshot-interval:PT10M}",
+            initialDelayString = "${taskmanager.persistence.snapshot-interval:PT10M}")
+    public void scheduledSnapshot() throws Exception {
+        writeSnapshot();
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void snapshotOnShutdown() throws Exception {
+        writeSnapshot();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        repair.shutdownNow();
+        changeLog.close();
+    }
+
+    /**
+     * Writes a snapshot and drops files no retained snapshot needs. Returns the snapshot's path.
+     */
+    public synchronized Path writeSnapshot() throws IOException, SQLException {
+        long start = System.nanoTime();
+        long failures = logFailures.get();
+        long seq = changeLog.rotate();
+        Path target = dir.resolve(String.format("%s%019d%s", SNAPSHOT_PREFIX, seq, SNAPSHOT_SUFFIX));
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+        long rows = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             Connection connection = dataSource.getConnection()) {
+            OutputStream file = new BufferedOutputStream(Channels.newOutputStream(channel), 256 * 1024);
+            CheckedOutputStream checked = new CheckedOutputStream(file, new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(seq);
+            out.writeLong(System.currentTimeMillis());
+            for (SnapshotTable table : SnapshotTable.values()) {
+                out.writeByte(table.ordinal());
+                long[] maxId = {0};
+                rows += writeRows(connection, table, out, maxId);
+                out.writeBoolean(false);
+                out.writeLong(Math.max(maxId[0], highWater(table)));
+            }
+            out.writeByte(-1);
+            out.flush();
+            new DataOutputStream(file).writeLong(checked.getChecksum().getValue());
+            file.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        pruneFiles();
+        if (failures > failuresCovered) {
+            failuresCovered = failures;
+            log.info("Change log repaired by snapshot {}; writes resume", target.getFileName());
+        }
+        log.info("Wrote snapshot {} ({} rows, {} bytes) in {} ms", target.getFileName(), rows, Files.size(target),
+                (System.nanoTime() - start) / 1_000_000);
+        return target;
+    }
+
+    private long writeRows(Connection connection, SnapshotTable table, DataOutputStream out, long[] maxId)
+            throws SQLException, IOException {
+        long rows = 0;
+        long afterId = Long.MIN_VALUE;
+        try (PreparedStatement select = connection.prepareStatement(table.selectPage())) {
+            while (true) {
+                select.setLong(1, afterId);
+                select.setInt(2, PAGE_SIZE);
+                int page = 0;
+                try (ResultSet result = select.executeQuery()) {
+                    while (result.next()) {
+                        out.writeBoolean(true);
+                        table.write(result, out);
+                        afterId = result.getLong(1);
+                        page++;
+                    }
+                }
+                rows += page;
+                maxId[0] = Math.max(maxId[0], afterId);
+                if (page < PAGE_SIZE) {
+                    return rows;
+                }
+            }
+        }
+    }
+
+    private void pruneFiles() throws IOException {
+        List<Path> snapshots = snapshots();
+        List<Path> kept = snapshots.subList(Math.max(0, snapshots.size() - snapshotsKept), snapshots.size());
+        for (Path snapshot : snapshots) {
+            if (!kept.contains(snapshot)) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+        // The oldest retained snapshot is the fallback; keep every change it would need
+        changeLog.deleteSegmentsThrough(snapshotSeq(kept.get(0)));
+    }
+
+    private long restore() throws Exception {
+        List<Path> snapshots = snapshots();
+        Path snapshot = null;
+        for (int i = snapshots.size() - 1; i >= 0 && snapshot == null; i--) {
+            if (checksumMatches(snapshots.get(i))) {
+                snapshot = snapshots.get(i);
+            } else {
+                log.warn("Ignoring snapshot {}: checksum mismatch", snapshots.get(i).getFileName());
+            }
+        }
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            List<String> deferred = dropSecondaryIndexes(statement);
+            long seq = 0;
+            long rows = 0;
+            if (snapshot != null) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 256 * 1024))) {
+                    if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                        throw new IOException("Unsupported snapshot format: " + snapshot);
+                    }
+                    seq = in.readLong();
+                    in.readLong();
+                    int ordinal;
+                    while ((ordinal = in.readByte()) >= 0) {
+                        rows += loadRows(connection, SnapshotTable.values()[ordinal], in);
+                        raiseHighWater(SnapshotTable.values()[ordinal], in.readLong());
+                    }
+                }
+                connection.commit();
+            }
+            long lastSeq;
+            long replayed;
+            try (Replayer replayer = new Replayer(connection, this::raiseHighWater)) {
+                lastSeq = ChangeLog.replay(dir, seq, replayer);
+                replayed = replayer.applied;
+            }
+            connection.commit();
+            for (String ddl : deferred) {
+                statement.execute(ddl);
+            }
+            statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            restartIdGenerators(statement);
+            connection.commit();
+            if (snapshot != null || replayed > 0) {
+                log.info("Loaded {} rows from {} and replayed {} changes", rows,
+                        snapshot == null ? "no snapshot" : snapshot.getFileName(), replayed);
+            }
+            return lastSeq;
+        }
+    }
+
+    private long loadRows(Connection connection, SnapshotTable table, DataInputStream in)
+            throws SQLException, IOException {
+        long rows = 0;
+        try (PreparedStatement insert = connection.prepareStatement(table.insert())) {
+            while (in.readBoolean()) {
+                table.bind(in, insert);
+                insert.addBatch();
+                if (++rows % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+                if (rows % (BATCH_SIZE * 10) == 0) {
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+        }
+        return rows;
+    }
+
+    /**
+     * Drops the indexes declared on the entities' {@code @Table} and returns the statements that recreate them.
+     * Indexes the database will not drop (for instance because a constraint uses them) stay in place.
+     */
+    private List<String> dropSecondaryIndexes(Statement statement) {
+        List<String> recreate = new ArrayList<>();
+        for (Class<?> entity : ENTITIES) {
+            Table table = entity.getAnnotation(Table.class);
+            for (Index index : table.indexes()) {
+                try {
+                    statement.execute("DROP INDEX IF EXISTS " + index.name());
+                    recreate.add("CREATE INDEX " + index.name() + " ON " + table.name() + " (" + index.columnList() + ")");
+                } catch (SQLException e) {
+                    log.debug("Keeping index {} during restore: {}", index.name(), e.getMessage());
+                }
+            }
+        }
+        return recreate;
+    }
+
+    private void restartIdGenerators(Statement statement) throws SQLException {
+        // Pooled optimizer: the sequence value is the top of the next block of ids
+        statement.execute("ALTER SEQUENCE task_seq RESTART WITH "
+                + (maxId(statement, SnapshotTable.TASKS) + sequenceIncrement(statement, "TASK_SEQ")));
+        statement.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (maxId(statement, SnapshotTable.USERS) + 1));
+        statement.execute("ALTER TABLE projects ALTER COLUMN id RESTART WITH "
+                + (maxId(statement, SnapshotTable.PROJECTS) + 1));
+    }
+
+    private long sequenceIncrement(Statement statement, String sequence) throws SQLException {
+        try (ResultSet result = statement.executeQuery(
+                "select increment from information_schema.sequences where sequence_name = '" + sequence + "'")) {
+            if (!result.next()) {
+                throw new SQLException("Sequence " + sequence + " not found");
+            }
+            return result.getLong(1);
+        }
+    }
+
+    private long maxId(Statement statement, SnapshotTable table) throws SQLException {
+        try (ResultSet result = statement.executeQuery("select coalesce(max(id), 0) from " + table.table())) {
+            result.next();
+            return Math.max(result.getLong(1), highWater(table));
+        }
+    }
+
+    private long highWater(SnapshotTable table) {
+        synchronized (changeLog) {
+            return idHighWater[table.ordinal()];
+        }
+    }
+
+    private void raiseHighWater(SnapshotTable table, long id) {
+        synchronized (changeLog) {
+            idHighWater[table.ordinal()] = Math.max(idHighWater[table.ordinal()], id);
+        }
+    }
+
+    private boolean checksumMatches(Path snapshot) throws IOException {
+        long size = Files.size(snapshot);
+        if (size < Long.BYTES) {
+            return false;
+        }
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(snapshot), 256 * 1024)) {
+            CheckedInputStream checked = new CheckedInputStream(raw, new CRC32());
+            long remaining = size - Long.BYTES;
+            byte[] buffer = new byte[64 * 1024];
+            while (remaining > 0) {
+                int read = checked.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    return false;
+                }
+                remaining -= read;
+            }
+            byte[] trailer = raw.readNBytes(Long.BYTES);
+            return trailer.length == Long.BYTES && ByteBuffer.wrap(trailer).getLong() == checked.getChecksum().getValue();
+        }
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(SNAPSHOT_PREFIX)
+                            && f.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long snapshotSeq(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    private PendingChanges pendingChanges() {
+        if (logFailures.get() > failuresCovered) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Change log is broken; writes are refused until a snapshot covers the lost changes");
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new PendingChanges(true);
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges(false);
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    /**
+     * Appends the current row images of {@code ids} to the change log; ids whose row is gone become deletes.
+     * Reading and appending happen under the log's lock, so the last record for a row is always its latest
+     * committed state.
+     */
+    private void appendChanges(Map<SnapshotTable, Set<Long>> ids) {
+        try (Connection connection = dataSource.getConnection()) {
+            synchronized (changeLog) {
+                List<byte[]> bodies = new ArrayList<>();
+                for (Map.Entry<SnapshotTable, Set<Long>> entry : ids.entrySet()) {
+                    readRowImages(connection, entry.getKey(), new ArrayList<>(entry.getValue()), bodies);
+                    entry.getValue().forEach(id -> raiseHighWater(entry.getKey(), id));
+                }
+                changeLog.append(bodies);
+            }
+        } catch (SQLException e) {
+            logBroken(e);
+            throw new IllegalStateException("Could not read changed rows for the change log", e);
+        } catch (IOException e) {
+            logBroken(e);
+            throw new UncheckedIOException("Could not append to the change log", e);
+        }
+    }
+
+    private void logBroken(Exception cause) {
+        log.error("Committed changes could not be logged; refusing writes until a snapshot is taken", cause);
+        logFailures.incrementAndGet();
+        if (repairQueued.compareAndSet(false, true)) {
+            repair.execute(this::repairSnapshot);
+        }
+    }
+
+    private void repairSnapshot() {
+        // Cleared first: a failure from here on is either covered by this snapshot or queues another
+        repairQueued.set(false);
+        try {
+            writeSnapshot();
+        } catch (Exception e) {
+            log.error("Repair snapshot failed; retrying in {} s", REPAIR_RETRY_SECONDS, e);
+            if (repairQueued.compareAndSet(false, true)) {
+                repair.schedule(this::repairSnapshot, REPAIR_RETRY_SECONDS, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private void readRowImages(Connection connection, SnapshotTable table, List<Long> ids, List<byte[]> bodies)
+            throws SQLException, IOException {
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + LOOKUP_CHUNK));
+            Set<Long> found = new HashSet<>();
+            try (PreparedStatement select = connection.prepareStatement(table.selectByIds(chunk.size()))) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    select.setLong(i + 1, chunk.get(i));
+                }
+                try (ResultSet result = select.executeQuery()) {
+                    while (result.next()) {
+                        found.add(result.getLong(1));
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+                        DataOutputStream body = new DataOutputStream(bytes);
+                        body.writeByte(table.ordinal());
+                        body.writeBoolean(true);
+                        table.write(result, body);
+                        bodies.add(bytes.toByteArray());
+                    }
+                }
+            }
+            for (Long id : chunk) {
+                if (!found.contains(id)) {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+                    DataOutputStream body = new DataOutputStream(bytes);
+                    body.writeByte(table.ordinal());
+                    body.writeBoolean(false);
+                    body.writeLong(id);
+                    bodies.add(bytes.toByteArray());
+                }
+            }
+        }
+    }
+
+    /**
+     * Ids touched by the current transaction, logged once it commits.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Map<SnapshotTable, Set<Long>> ids = new EnumMap<>(SnapshotTable.class);
+        private final boolean immediate;
+
+        PendingChanges(boolean immediate) {
+            this.immediate = immediate;
+        }
+
+        void add(EntityType type, Long id) {
+            SnapshotTable table = switch (type) {
+                case USER -> SnapshotTable.USERS;
+                case PROJECT -> SnapshotTable.PROJECTS;
+                case TASK -> SnapshotTable.TASKS;
+            };
+            ids.computeIfAbsent(table, t -> new LinkedHashSet<>()).add(id);
+            if (immediate) {
+                appendChanges(ids);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(DatabaseSnapshotService.this);
+            if (status == STATUS_COMMITTED) {
+                appendChanges(ids);
+            }
+        }
+    }
+
+    /**
+     * Applies log records with merges and deletes, batching runs of the same statement.
+     */
+    private static final class Replayer implements ChangeLog.RecordHandler, AutoCloseable {
+
+        private final Connection connection;
+        private final BiConsumer<SnapshotTable, Long> idSeen;
+        private PreparedStatement current;
+        private String currentSql;
+        private int pending;
+        private long applied;
+
+        Replayer(Connection connection, BiConsumer<SnapshotTable, Long> idSeen) {
+            this.connection = connection;
+            this.idSeen = idSeen;
+        }
+
+        @Override
+        public void apply(long seq, DataInputStream body) throws Exception {
+            SnapshotTable table = SnapshotTable.values()[body.readByte()];
+            boolean upsert = body.readBoolean();
+            PreparedStatement statement = statement(upsert ? table.merge() : table.delete());
+            if (upsert) {
+                // Row images start with the id column: presence flag, then the value
+                body.mark(Long.BYTES + 1);
+                body.readBoolean();
+                idSeen.accept(table, body.readLong());
+                body.reset();
+                table.bind(body, statement);
+            } else {
+                long id = body.readLong();
+                idSeen.accept(table, id);
+                statement.setLong(1, id);
+            }
+            statement.addBatch();
+            applied++;
+            if (++pending == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private PreparedStatement statement(String sql) throws SQLException {
+            if (!sql.equals(currentSql)) {
+                flush();
+                if (current != null) {
+                    current.close();
+                }
+                current = connection.prepareStatement(sql);
+                currentSql = sql;
+            }
+            return current;
+        }
+
+        private void flush() throws SQLException {
+            if (current != null && pending > 0) {
+                current.executeBatch();
+            }
+            pending = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+            if (current != null) {
+                current.close();
+            }
+        }
+    }
+}
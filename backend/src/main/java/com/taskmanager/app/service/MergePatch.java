@@ -0,0 +1,97 @@
+package com.taskmanager.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * An RFC 7396 merge patch against a flat entity: members present in the document are set (null clears them),
+ * absent members are left alone. Associations are patched by reference, {@code {"id": 3}} or null, never by
+ * merging into the referenced entity.
+ */
+final class MergePatch {
+
+    private final JsonNode document;
+
+    private MergePatch(JsonNode document) {
+        this.document = document;
+    }
+
+    static MergePatch of(JsonNode document, Set<String> patchable) {
+        if (document == null || !document.isObject()) {
+            throw badRequest("A merge patch must be a JSON object");
+        }
+        for (Iterator<String> names = document.fieldNames(); names.hasNext(); ) {
+            String name = names.next();
+            if (!patchable.contains(name)) {
+                throw badRequest("Field cannot be patched: " + name);
+            }
+        }
+        return new MergePatch(document);
+    }
+
+    boolean has(String field) {
+        return document.has(field);
+    }
+
+    String text(String field) {
+        JsonNode value = document.get(field);
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw badRequest(field + " must be a string");
+        }
+        return value.textValue();
+    }
+
+    String requiredText(String field) {
+        String value = text(field);
+        if (value == null || value.isBlank()) {
+            throw badRequest(field + " cannot be empty");
+        }
+        return value;
+    }
+
+    <E extends Enum<E>> E requiredEnum(String field, Class<E> type) {
+        String value = requiredText(field);
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            throw badRequest("Invalid " + field + ": " + value);
+        }
+    }
+
+    LocalDate date(String field) {
+        String value = text(field);
+        try {
+            return value == null ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw badRequest("Invalid " + field + ": " + value);
+        }
+    }
+
+    /**
+     * Id of the entity an association should point to, or null to clear it.
+     */
+    Long referenceId(String field) {
+        JsonNode value = document.get(field);
+        if (value.isNull()) {
+            return null;
+        }
+        JsonNode id = value.get("id");
+        if (id == null || !id.canConvertToLong()) {
+            throw badRequest(field + " must be null or an object with a numeric id");
+        }
+        return id.longValue();
+    }
+
+    private static ResponseStatusException badRequest(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
+}
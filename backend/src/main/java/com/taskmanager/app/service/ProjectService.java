@@ -1,13 +1,29 @@
 package com.taskmanager.app.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.taskmanager.app.domain.Project;
 import com.taskmanager.app.domain.User;
+import com.taskmanager.app.event.ChangeType;
+import com.taskmanager.app.event.EntityChangedEvent;
+import com.taskmanager.app.event.EntityPurgedEvent;
+import com.taskmanager.app.dto.SparseRow;
+import com.taskmanager.app.event.EntityType;
+import com.taskmanager.app.repository.FieldSet;
 import com.taskmanager.app.repository.ProjectRepository;
+import com.taskmanager.app.repository.SparseRowRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -15,17 +31,47 @@ import java.util.List;
 public class ProjectService {
 
     private final ProjectRepository projectRepository;
+    private final SparseRowRepository sparseRowRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Transactional(readOnly = true)
     public List<Project> getAllProjects() {
         return projectRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<SparseRow> getAllProjects(FieldSet fields) {
+        return sparseRowRepository.findAll(Project.class, fields);
+    }
+
+    @Transactional(readOnly = true)
     public Project getProjectById(Long id) {
         return projectRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
     }
 
+    /**
+     * The project's version followed by its creator's (null when there is none).
+     */
+    @Transactional(readOnly = true)
+    public List<Long> getProjectVersions(Long id) {
+        return projectRepository.findVersionsById(id).stream()
+                .findFirst()
+                .map(row -> Arrays.stream(row).map(Long.class::cast).toList())
+                .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, Project> getProjectsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return projectRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Project::getId, Function.identity()));
+    }
+
+    @Transactional(readOnly = true)
     public List<Project> getProjectsByUserId(Long userId) {
         return projectRepository.findByCreatedById(userId);
     }
@@ -35,18 +81,74 @@ public class ProjectService {
             User user = userService.getUserById(project.getCreatedBy().getId());
             project.setCreatedBy(user);
         }
-        return projectRepository.save(project);
+        Project saved = projectRepository.save(project);
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityType.PROJECT, saved.getId(), ChangeType.CREATED));
+        return saved;
     }
 
     public Project updateProject(Long id, Project projectDetails) {
+        return updateProject(id, projectDetails, null);
+    }
+
+    public Project updateProject(Long id, Project projectDetails, Long expectedVersion) {
         Project project = getProjectById(id);
+        VersionCheck.requireVersion(expectedVersion, project.getVersion());
         project.setName(projectDetails.getName());
         project.setDescription(projectDetails.getDescription());
-        return projectRepository.save(project);
+        Project saved = projectRepository.save(project);
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityType.PROJECT, id, ChangeType.UPDATED));
+        return saved;
     }
 
-    public void deleteProject(Long id) {
+    public Project patchProject(Long id, JsonNode patch, Long expectedVersion) {
+        MergePatch changes = MergePatch.of(patch, Set.of("name", "description"));
         Project project = getProjectById(id);
-        projectRepository.delete(project);
+        VersionCheck.requireVersion(expectedVersion, project.getVersion());
+        if (changes.has("name")) {
+            project.setName(changes.requiredText("name"));
+        }
+        if (changes.has("description")) {
+            project.setDescription(changes.text("description"));
+        }
+        Project saved = projectRepository.save(project);
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityType.PROJECT, id, ChangeType.UPDATED));
+        return saved;
+    }
+
+    /**
+     * First step of a project's deletion: hides it from every read and announces the deletion.
+     * {@link CascadeDeletionService} removes its tasks and then the row.
+     */
+    public void markProjectDeleted(Long id) {
+        if (projectRepository.markDeleted(id, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Project not found with id: " + id);
+        }
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityType.PROJECT, id, ChangeType.DELETED));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> getMarkedDeletedProjectIds() {
+        return projectRepository.findMarkedDeletedIds();
+    }
+
+    /**
+     * Clears the user as creator of up to {@code limit} projects, marked ones included, and returns how many.
+     */
+    public int detachProjectsOfCreator(Long userId, int limit) {
+        List<Long> ids = projectRepository.findIdsByCreator(userId, limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        projectRepository.clearCreatorByIds(ids);
+        for (Long id : ids) {
+            eventPublisher.publishEvent(new EntityChangedEvent(EntityType.PROJECT, id, ChangeType.UPDATED));
+        }
+        return ids.size();
+    }
+
+    public void purgeProject(Long id) {
+        if (projectRepository.purgeMarked(id) > 0) {
+            eventPublisher.publishEvent(new EntityPurgedEvent(EntityType.PROJECT, id));
+        }
     }
-}
\ No newline at end of file
+}
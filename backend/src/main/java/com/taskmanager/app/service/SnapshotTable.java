@@ -0,0 +1,211 @@
+package com.taskmanager.app.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Column layout and binary row encoding shared by database snapshots and the change log. Rows are copied
+ * column by column between JDBC and the stream, without going through entities. Each value is a presence
+ * byte followed by the value.
+ */
+enum SnapshotTable {
+
+    // Parents before children, so a load in this order never sees a dangling reference
+    USERS("users",
+            new Column("id", ColumnType.LONG),
+            new Column("name", ColumnType.STRING),
+            new Column("email", ColumnType.STRING),
+            new Column("created_at", ColumnType.TIMESTAMP),
+            new Column("deleted_at", ColumnType.TIMESTAMP),
+            new Column("version", ColumnType.LONG)),
+    PROJECTS("projects",
+            new Column("id", ColumnType.LONG),
+            new Column("name", ColumnType.STRING),
+            new Column("description", ColumnType.STRING),
+            new Column("created_by_user_id", ColumnType.LONG),
+            new Column("created_at", ColumnType.TIMESTAMP),
+            new Column("deleted_at", ColumnType.TIMESTAMP),
+            new Column("version", ColumnType.LONG)),
+    TASKS("tasks",
+            new Column("id", ColumnType.LONG),
+            new Column("title", ColumnType.STRING),
+            new Column("description", ColumnType.STRING),
+            new Column("status", ColumnType.STRING),
+            new Column("priority", ColumnType.STRING),
+            new Column("assigned_to_user_id", ColumnType.LONG),
+            new Column("project_id", ColumnType.LONG),
+            new Column("due_date", ColumnType.DATE),
+            new Column("created_at", ColumnType.TIMESTAMP),
+            new Column("version", ColumnType.LONG));
+
+    private final String table;
+    private final List<Column> columns;
+    private final String columnList;
+
+    SnapshotTable(String table, Column... columns) {
+        this.table = table;
+        this.columns = List.of(columns);
+        this.columnList = this.columns.stream().map(Column::name).collect(Collectors.joining(", "));
+    }
+
+    String table() {
+        return table;
+    }
+
+    String selectPage() {
+        return "select " + columnList + " from " + table + " where id > ? order by id limit ?";
+    }
+
+    String selectByIds(int count) {
+        return "select " + columnList + " from " + table + " where id in (" + placeholders(count) + ")";
+    }
+
+    String insert() {
+        return "insert into " + table + " (" + columnList + ") values (" + placeholders(columns.size()) + ")";
+    }
+
+    String merge() {
+        return "merge into " + table + " (" + columnList + ") key (id) values (" + placeholders(columns.size()) + ")";
+    }
+
+    String delete() {
+        return "delete from " + table + " where id = ?";
+    }
+
+    /**
+     * Copies the current row of {@code rows} (selected with this table's column list) to {@code out}.
+     */
+    void write(ResultSet rows, DataOutput out) throws SQLException, IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).type().write(rows, i + 1, out);
+        }
+    }
+
+    /**
+     * Reads one row written by {@link #write} and binds it to an insert or merge statement.
+     */
+    void bind(DataInput in, PreparedStatement statement) throws SQLException, IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).type().bind(in, statement, i + 1);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private record Column(String name, ColumnType type) {
+    }
+
+    private enum ColumnType {
+        LONG {
+            @Override
+            void writeValue(ResultSet rows, int index, DataOutput out) throws SQLException, IOException {
+                out.writeLong(rows.getLong(index));
+            }
+
+            @Override
+            void bindValue(DataInput in, PreparedStatement statement, int index) throws SQLException, IOException {
+                statement.setLong(index, in.readLong());
+            }
+
+            @Override
+            int sqlType() {
+                return Types.BIGINT;
+            }
+        },
+        STRING {
+            @Override
+            void writeValue(ResultSet rows, int index, DataOutput out) throws SQLException, IOException {
+                byte[] bytes = rows.getString(index).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            @Override
+            void bindValue(DataInput in, PreparedStatement statement, int index) throws SQLException, IOException {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                statement.setString(index, new String(bytes, StandardCharsets.UTF_8));
+            }
+
+            @Override
+            int sqlType() {
+                return Types.VARCHAR;
+            }
+        },
+        TIMESTAMP {
+            @Override
+            void writeValue(ResultSet rows, int index, DataOutput out) throws SQLException, IOException {
+                LocalDateTime value = rows.getTimestamp(index).toLocalDateTime();
+                out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(value.getNano());
+            }
+
+            @Override
+            void bindValue(DataInput in, PreparedStatement statement, int index) throws SQLException, IOException {
+                long seconds = in.readLong();
+                int nanos = in.readInt();
+                statement.setTimestamp(index, Timestamp.valueOf(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC)));
+            }
+
+            @Override
+            int sqlType() {
+                return Types.TIMESTAMP;
+            }
+        },
+        DATE {
+            @Override
+            void writeValue(ResultSet rows, int index, DataOutput out) throws SQLException, IOException {
+                out.writeLong(rows.getDate(index).toLocalDate().toEpochDay());
+            }
+
+            @Override
+            void bindValue(DataInput in, PreparedStatement statement, int index) throws SQLException, IOException {
+                statement.setDate(index, Date.valueOf(LocalDate.ofEpochDay(in.readLong())));
+            }
+
+            @Override
+            int sqlType() {
+                return Types.DATE;
+            }
+        };
+
+        void write(ResultSet rows, int index, DataOutput out) throws SQLException, IOException {
+            if (rows.getObject(index) == null) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                writeValue(rows, index, out);
+            }
+        }
+
+        void bind(DataInput in, PreparedStatement statement, int index) throws SQLException, IOException {
+            if (in.readBoolean()) {
+                bindValue(in, statement, index);
+            } else {
+                statement.setNull(index, sqlType());
+            }
+        }
+
+        abstract void writeValue(ResultSet rows, int index, DataOutput out) throws SQLException, IOException;
+
+        abstract void bindValue(DataInput in, PreparedStatement statement, int index) throws SQLException, IOException;
+
+        abstract int sqlType();
+    }
+}
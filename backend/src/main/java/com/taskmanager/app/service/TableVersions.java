@@ -0,0 +1,50 @@
+package com.taskmanager.app.service;
+
+import com.taskmanager.app.event.EntityChangedEvent;
+import com.taskmanager.app.event.EntityType;
+import com.taskmanager.app.event.TaskChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-table modification counters, bumped after every committed write, used as weak ETags for list
+ * endpoints. The boot id keeps tags from a previous run from matching after a restart.
+ */
+@Component
+public class TableVersions {
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<EntityType, AtomicLong> counters = new EnumMap<>(EntityType.class);
+
+    public TableVersions() {
+        for (EntityType type : EntityType.values()) {
+            counters.put(type, new AtomicLong());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        counters.get(EntityType.TASK).incrementAndGet();
+    }
+
+    @TransactionalEventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        counters.get(event.type()).incrementAndGet();
+    }
+
+    /**
+     * Stamp covering every table a response is built from. Read it before loading the data, so a write
+     * that lands in between can only make the tag look older than the body, never newer.
+     */
+    public String stamp(EntityType... types) {
+        StringBuilder stamp = new StringBuilder(bootId);
+        for (EntityType type : types) {
+            stamp.append('-').append(counters.get(type).get());
+        }
+        return stamp.toString();
+    }
+}
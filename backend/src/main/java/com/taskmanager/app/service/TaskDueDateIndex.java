@@ -0,0 +1,138 @@
+package com.taskmanager.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Open tasks with a due date, bucketed by day: one bucket of task ids per date, the dates in order, like
+ * a timer wheel with one slot per day that never wraps. Moving a task costs two bucket updates, and
+ * reading the tasks due in a range walks only the non-empty buckets in it, so it costs the number of tasks
+ * returned rather than the number indexed.
+ *
+ * <p>Changes may arrive out of commit order, so the index keeps the version it has of each task and ignores
+ * an older one. Tasks that left it (finished, undated or deleted) are remembered for {@code FORGET_AFTER},
+ * long enough for any change that committed before that to have arrived.
+ */
+class TaskDueDateIndex {
+
+    // Version of a deleted task: later than any update of it
+    static final long DELETED = Long.MAX_VALUE;
+
+    private static final Duration FORGET_AFTER = Duration.ofMinutes(10);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<LocalDate, TreeSet<Long>> byDate = new TreeMap<>();
+    private final Map<Long, Tracked> byTask = new HashMap<>();
+    private final Cache<Long, Long> leftAt = Caffeine.newBuilder().expireAfterWrite(FORGET_AFTER).build();
+
+    record Entry(LocalDate dueDate, long taskId) {
+    }
+
+    private record Tracked(LocalDate dueDate, long version) {
+    }
+
+    /**
+     * Files the task under {@code dueDate}, or takes it out when that is null, unless the index has already
+     * seen {@code version} or a later one of it. Returns whether it did.
+     */
+    boolean update(long taskId, long version, LocalDate dueDate) {
+        lock.writeLock().lock();
+        try {
+            Tracked current = byTask.get(taskId);
+            Long seen = current != null ? Long.valueOf(current.version()) : leftAt.getIfPresent(taskId);
+            if (seen != null && seen >= version) {
+                return false;
+            }
+            if (current != null) {
+                TreeSet<Long> ids = byDate.get(current.dueDate());
+                ids.remove(taskId);
+                if (ids.isEmpty()) {
+                    byDate.remove(current.dueDate());
+                }
+            }
+            if (dueDate == null) {
+                byTask.remove(taskId);
+                leftAt.put(taskId, version);
+            } else {
+                byTask.put(taskId, new Tracked(dueDate, version));
+                byDate.computeIfAbsent(dueDate, date -> new TreeSet<>()).add(taskId);
+                leftAt.invalidate(taskId);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            byDate.clear();
+            byTask.clear();
+            leftAt.invalidateAll();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return byTask.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Long> dueOn(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            TreeSet<Long> ids = byDate.get(date);
+            return ids == null ? List.of() : List.copyOf(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} tasks due before {@code date}, by due date and then id, starting after the given
+     * position when {@code afterDate} is not null.
+     */
+    List<Entry> dueBefore(LocalDate date, LocalDate afterDate, long afterTaskId, int limit) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<LocalDate, TreeSet<Long>> days = byDate.headMap(date, false);
+            if (afterDate != null) {
+                days = days.tailMap(afterDate, true);
+            }
+            List<Entry> entries = new ArrayList<>(Math.min(limit, byTask.size()));
+            for (Map.Entry<LocalDate, TreeSet<Long>> day : days.entrySet()) {
+                NavigableSet<Long> ids = day.getKey().equals(afterDate)
+                        ? day.getValue().tailSet(afterTaskId, false)
+                        : day.getValue();
+                for (long taskId : ids) {
+                    if (entries.size() == limit) {
+                        return entries;
+                    }
+                    entries.add(new Entry(day.getKey(), taskId));
+                }
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
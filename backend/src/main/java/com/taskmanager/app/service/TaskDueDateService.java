@@ -0,0 +1,205 @@
+package com.taskmanager.app.service;
+
+import com.taskmanager.app.config.DataSourceRouting;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.dto.CursorPage;
+import com.taskmanager.app.dto.TaskView;
+import com.taskmanager.app.event.ChangeType;
+import com.taskmanager.app.event.TaskChangedEvent;
+import com.taskmanager.app.event.TaskDueEvent;
+import com.taskmanager.app.event.TaskSnapshot;
+import com.taskmanager.app.repository.TaskCursor;
+import com.taskmanager.app.repository.TaskRepository;
+import com.taskmanager.app.repository.TaskShards;
+import com.taskmanager.app.repository.TaskSort;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Due dates of open tasks, served from {@link TaskDueDateIndex}: the overdue listing, and the due-soon and
+ * overdue notices on the change feed. The index is loaded from the database once at startup and then
+ * follows committed {@link TaskChangedEvent}s, so neither ever scans the tasks table.
+ *
+ * <p>A task is due soon from {@code due-soon-days} days before its due date and overdue from the day after
+ * it. Each time an open task enters one of these states a {@link TaskDueEvent} is published: by
+ * {@link #advance()} when the date changes, by {@link #onTaskChanged} when a write puts it there directly.
+ * Days that pass while the application is down are not announced.
+ */
+@Slf4j
+@Service
+public class TaskDueDateService implements SmartInitializingSingleton {
+
+    private static final int LOOKUP_CHUNK = 1_000;
+
+    private final TaskRepository taskRepository;
+    private final TaskShards taskShards;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int dueSoonDays;
+    private final TaskDueDateIndex index = new TaskDueDateIndex();
+
+    // Events apply under the read lock; rebuilds and day changes take the write lock, so every change is
+    // judged either entirely before a day change or entirely after it
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile LocalDate today = LocalDate.now();
+
+    public TaskDueDateService(TaskRepository taskRepository, TaskShards taskShards,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${taskmanager.due-dates.due-soon-days:1}") int dueSoonDays) {
+        this.taskRepository = taskRepository;
+        this.taskShards = taskShards;
+        this.eventPublisher = eventPublisher;
+        this.dueSoonDays = dueSoonDays;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            today = LocalDate.now();
+            // From the primary, like the other read models: later change events are applied on top
+            DataSourceRouting.onPrimary(() -> {
+                for (Object[] row : taskShards.findAll(taskRepository::findOpenDueDates, null)) {
+                    index.update((Long) row[0], (Long) row[2], (LocalDate) row[1]);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} open task due dates in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        TaskDueEvent due = null;
+        lock.readLock().lock();
+        try {
+            TaskSnapshot before = event.before();
+            TaskSnapshot after = event.after();
+            boolean applied = after == null
+                    ? index.update(before.id(), TaskDueDateIndex.DELETED, null)
+                    : index.update(after.id(), after.version(), isTracked(after) ? after.dueDate() : null);
+            // Not applied: a later change of the task has been applied already, and judged then
+            if (applied && isTracked(after)) {
+                ChangeType state = state(after);
+                if (state != null && state != state(before)) {
+                    due = new TaskDueEvent(after, state);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (due != null) {
+            eventPublisher.publishEvent(due);
+        }
+    }
+
+    /**
+     * Moves the index to the current date, announcing the tasks that became overdue or due soon on each day
+     * passed. Checked often so notices go out shortly after midnight; between days this is one comparison.
+     */
+    @Scheduled(fixedRateString = "${taskmanager.due-dates.check-interval:PT1M}")
+    public void advance() {
+        LocalDate now = LocalDate.now();
+        if (!now.isAfter(today)) {
+            return;
+        }
+        List<Long> overdue = new ArrayList<>();
+        List<Long> dueSoon = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            while (today.isBefore(now)) {
+                today = today.plusDays(1);
+                overdue.addAll(index.dueOn(today.minusDays(1)));
+                dueSoon.addAll(index.dueOn(today.plusDays(dueSoonDays)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        int published = publishIfStill(overdue, ChangeType.OVERDUE) + publishIfStill(dueSoon, ChangeType.DUE_SOON);
+        log.info("Due dates advanced to {}: {} tasks became overdue or due soon", now, published);
+    }
+
+    public CursorPage<TaskView> getOverdueTasks(TaskCursor after, int limit) {
+        if (after != null && after.dueDate() == null) {
+            // Cursor past the dated tasks, where overdue ones end
+            return new CursorPage<>(List.of(), null);
+        }
+        // The index's date rather than the clock's, so the list agrees with the OVERDUE notices sent so far
+        List<TaskDueDateIndex.Entry> entries = index.dueBefore(today,
+                after == null ? null : after.dueDate(), after == null ? 0 : after.id(), limit + 1);
+        boolean more = entries.size() > limit;
+        List<TaskDueDateIndex.Entry> page = more ? entries.subList(0, limit) : entries;
+        if (page.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        // One query for the page's rows, then restore due date order
+        Map<Long, TaskView> views = taskShards.findByIds(page.stream().map(TaskDueDateIndex.Entry::taskId).toList(),
+                        taskRepository::findViewsByIds)
+                .stream()
+                .collect(Collectors.toMap(TaskView::id, Function.identity()));
+        List<TaskView> items = page.stream()
+                .map(entry -> views.get(entry.taskId()))
+                .filter(view -> view != null)
+                .toList();
+        TaskDueDateIndex.Entry last = page.get(page.size() - 1);
+        return new CursorPage<>(items, more
+                ? new TaskCursor(TaskSort.DUE_DATE, null, last.dueDate(), null, last.taskId()).encode()
+                : null);
+    }
+
+    /**
+     * Publishes {@code state} for the tasks that are still in it once re-read; a task changed since it was
+     * picked from the index has been judged, and announced if needed, by that change.
+     */
+    private int publishIfStill(List<Long> taskIds, ChangeType state) {
+        int published = 0;
+        for (int from = 0; from < taskIds.size(); from += LOOKUP_CHUNK) {
+            List<Long> chunk = taskIds.subList(from, Math.min(taskIds.size(), from + LOOKUP_CHUNK));
+            List<TaskSnapshot> tasks = new ArrayList<>();
+            DataSourceRouting.onPrimary(() -> tasks.addAll(taskShards.findByIds(chunk,
+                    taskRepository::findSnapshotsByIds)));
+            for (TaskSnapshot task : tasks) {
+                if (isTracked(task) && state(task) == state) {
+                    eventPublisher.publishEvent(new TaskDueEvent(task, state));
+                    published++;
+                }
+            }
+        }
+        return published;
+    }
+
+    private static boolean isTracked(TaskSnapshot task) {
+        return task != null && task.status() != TaskStatus.DONE && task.dueDate() != null;
+    }
+
+    private ChangeType state(TaskSnapshot task) {
+        if (!isTracked(task)) {
+            return null;
+        }
+        if (task.dueDate().isBefore(today)) {
+            return ChangeType.OVERDUE;
+        }
+        return task.dueDate().isAfter(today.plusDays(dueSoonDays)) ? null : ChangeType.DUE_SOON;
+    }
+}
@@ -0,0 +1,138 @@
+package com.taskmanager.app.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.repository.TaskRepository;
+import com.taskmanager.app.repository.TaskShards;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole task table to an output stream one row at a time. Rows are read through a
+ * forward-only cursor and the persistence context is cleared as we go, so heap use does not grow
+ * with the table. Sharded, the shards are exported one after another, each in id order.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskExportService {
+
+    private static final int CLEAR_INTERVAL = 1000;
+    private static final String CSV_HEADER =
+            "id,title,description,status,priority,dueDate,createdAt,assignedToId,assignedToName,projectId,projectName";
+
+    private final TaskRepository taskRepository;
+    private final TaskShards taskShards;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public long export(TaskExportFormat format, OutputStream out) throws IOException {
+        try {
+            return switch (format) {
+                case NDJSON -> writeNdjson(out);
+                case CSV -> writeCsv(out);
+            };
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long writeNdjson(OutputStream out) throws IOException {
+        long[] count = {0};
+        try (SequenceWriter writer = objectMapper.writerFor(Task.class)
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValues(out)) {
+            forEachTask(task -> {
+                writer.write(task);
+                release(++count[0]);
+            });
+        }
+        if (count[0] > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return count[0];
+    }
+
+    private long writeCsv(OutputStream out) throws IOException {
+        long[] count = {0};
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        forEachTask(task -> {
+            writer.write(String.join(",",
+                    String.valueOf(task.getId()),
+                    csv(task.getTitle()),
+                    csv(task.getDescription()),
+                    task.getStatus().name(),
+                    task.getPriority().name(),
+                    task.getDueDate() == null ? "" : task.getDueDate().toString(),
+                    task.getCreatedAt().toString(),
+                    task.getAssignedTo() == null ? "" : String.valueOf(task.getAssignedTo().getId()),
+                    task.getAssignedTo() == null ? "" : csv(task.getAssignedTo().getName()),
+                    task.getProject() == null ? "" : String.valueOf(task.getProject().getId()),
+                    task.getProject() == null ? "" : csv(task.getProject().getName())));
+            writer.write("\r\n");
+            release(++count[0]);
+        });
+        writer.flush();
+        return count[0];
+    }
+
+    private interface TaskWriter {
+        void write(Task task) throws IOException;
+    }
+
+    /**
+     * Streams every task into {@code writer}, through one read-only transaction per shard.
+     */
+    private void forEachTask(TaskWriter writer) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        taskShards.forEachShard(() -> readOnly.executeWithoutResult(status -> {
+            try (Stream<Task> tasks = taskRepository.streamAllForExport()) {
+                tasks.forEach(task -> {
+                    try {
+                        writer.write(task);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        }));
+    }
+
+    private void release(long count) {
+        if (count % CLEAR_INTERVAL == 0) {
+            entityManager.clear();
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
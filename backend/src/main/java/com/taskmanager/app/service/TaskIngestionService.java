@@ -0,0 +1,181 @@
+package com.taskmanager.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.dto.IngestTicket;
+import com.taskmanager.app.dto.TaskBatchResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind ingestion for {@code POST /api/tasks?mode=async}.
+ *
+ * <p>Accepted tasks wait in a bounded queue and a single writer thread inserts them in group commits: a
+ * batch is flushed once it reaches {@code max-batch} tasks or {@code max-delay} after its first task arrived,
+ * whichever comes first, through {@link TaskService#createTasks} (one transaction per shard, JDBC-batched inserts).
+ * A full queue is rejected with 429 rather than buffering without limit. Tickets resolve to the created task
+ * id and are kept for {@code ticket-ttl}; tasks still queued at shutdown are flushed before the writer stops.
+ */
+@Slf4j
+@Service
+public class TaskIngestionService {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final TaskService taskService;
+    private final BlockingQueue<Pending> queue;
+    private final Cache<String, IngestTicket> tickets;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final DistributionSummary batchSizes;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public TaskIngestionService(
+            TaskService taskService,
+            MeterRegistry meterRegistry,
+            @Value("${taskmanager.ingest.queue-capacity:10000}") int queueCapacity,
+            @Value("${taskmanager.ingest.max-batch:500}") int maxBatch,
+            @Value("${taskmanager.ingest.max-delay:10ms}") Duration maxDelay,
+            @Value("${taskmanager.ingest.ticket-ttl:10m}") Duration ticketTtl) {
+        this.taskService = taskService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = maxDelay.toNanos();
+        // Room for every queued ticket plus the resolved ones of several full queues
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(queueCapacity * 10L)
+                .expireAfterWrite(ticketTtl)
+                .build();
+        Gauge.builder("taskmanager.ingest.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("taskmanager.ingest.batch.size")
+                .serviceLevelObjectives(1, 10, 50, 100, 250, 500, 1000)
+                .register(meterRegistry);
+        this.writer = new Thread(this::runWriter, "task-ingest-writer");
+        writer.start();
+    }
+
+    private record Pending(String ticket, Task task) {
+    }
+
+    public IngestTicket submit(Task task) {
+        if (!running) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Ingestion is shutting down");
+        }
+        IngestTicket ticket = IngestTicket.queued(UUID.randomUUID().toString());
+        tickets.put(ticket.ticket(), ticket);
+        if (!queue.offer(new Pending(ticket.ticket(), task))) {
+            tickets.invalidate(ticket.ticket());
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Ingestion queue is full");
+        }
+        return ticket;
+    }
+
+    public IngestTicket getTicket(String ticket) {
+        IngestTicket state = tickets.getIfPresent(ticket);
+        if (state == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown or expired ticket: " + ticket);
+        }
+        return state;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Waits briefly for a first task, then gathers more until the batch is full or its delay has passed.
+     * Once shutting down it only drains what is already queued.
+     */
+    private void collect(List<Pending> batch) throws InterruptedException {
+        Pending first = queue.poll(running ? IDLE_POLL_MILLIS : 0, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatch) {
+            if (queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            Pending next = remaining > 0 && running ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        List<Task> tasks = new ArrayList<>(batch.size());
+        batch.forEach(pending -> tasks.add(pending.task()));
+        batchSizes.record(batch.size());
+        try {
+            resolve(batch, taskService.createTasks(tasks));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            // One bad row rolls back the whole group; retry one by one so only that row fails
+            log.warn("Group commit of {} queued tasks failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (Pending pending : batch) {
+                try {
+                    resolve(List.of(pending), taskService.createTasks(List.of(pending.task())));
+                } catch (RuntimeException single) {
+                    fail(pending, single);
+                }
+            }
+        }
+    }
+
+    private void resolve(List<Pending> batch, List<TaskBatchResult> results) {
+        for (TaskBatchResult result : results) {
+            tickets.asMap().computeIfPresent(batch.get(result.index()).ticket(), (id, ticket) -> ticket.resolve(result));
+        }
+    }
+
+    private void fail(Pending pending, RuntimeException e) {
+        log.warn("Queued task for ticket {} could not be created", pending.ticket(), e);
+        tickets.asMap().computeIfPresent(pending.ticket(), (id, ticket) -> ticket.fail(e.getMessage()));
+    }
+}
@@ -0,0 +1,424 @@
+package com.taskmanager.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.taskmanager.app.event.TaskSnapshot;
+import com.taskmanager.app.repository.TaskFilter;
+
+import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over task titles and descriptions.
+ *
+ * <p>Every indexed version of a task gets a fresh internal doc number, so posting lists are append-only and
+ * stay sorted, which keeps intersections a linear merge. Updates and deletes only mark the old doc dead;
+ * dead docs are dropped by {@link #compact()} once they outnumber live ones. Only the columns needed for
+ * filtering are kept per doc, not the text itself.
+ *
+ * <p>Changes may arrive out of commit order, so each doc keeps its task's version and an older image of the
+ * task is ignored. Deleted tasks are remembered for {@code TOMBSTONE_TTL}, long enough for any update that
+ * committed before the delete to have arrived, so such an update cannot bring them back.
+ */
+class TaskSearchIndex {
+
+    private static final byte IN_TITLE = 1;
+    private static final byte IN_DESCRIPTION = 2;
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_PENALTY = 0.7f;
+    private static final int MAX_PREFIX_EXPANSION = 128;
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final long NONE = Long.MIN_VALUE;
+    private static final Duration TOMBSTONE_TTL = Duration.ofMinutes(10);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, PostingList> terms = new TreeMap<>();
+    private final Map<Long, Integer> docByTaskId = new HashMap<>();
+    private final Cache<Long, Boolean> deleted = Caffeine.newBuilder().expireAfterWrite(TOMBSTONE_TTL).build();
+
+    private long[] taskIds = new long[1024];
+    private long[] versions = new long[1024];
+    private byte[] statuses = new byte[1024];
+    private byte[] priorities = new byte[1024];
+    private long[] projectIds = new long[1024];
+    private long[] assigneeIds = new long[1024];
+    private final BitSet live = new BitSet();
+    private int docCount;
+    private int deadCount;
+
+    record Hit(long taskId, float score) {
+    }
+
+    /**
+     * Indexes {@code task} unless this or a later version of it is indexed already, or it was deleted.
+     * Returns whether it was indexed.
+     */
+    boolean index(TaskSnapshot task) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docByTaskId.get(task.id());
+            if ((doc != null && versions[doc] >= task.version()) || deleted.getIfPresent(task.id()) != null) {
+                return false;
+            }
+            removeLocked(task.id());
+            addLocked(task);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long taskId) {
+        lock.writeLock().lock();
+        try {
+            deleted.put(taskId, Boolean.TRUE);
+            removeLocked(taskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            docByTaskId.clear();
+            deleted.invalidateAll();
+            live.clear();
+            docCount = 0;
+            deadCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docByTaskId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked matches for all query tokens (each token also matches terms it is a prefix of), ordered by
+     * score descending then task id ascending, starting strictly after {@code (afterScore, afterTaskId)}.
+     *
+     * <p>Scores are weighted by how rare each term is across the index, so any write can shift them. A cursor
+     * taken from an earlier page is therefore only exact while the index is unchanged; after a write, a
+     * task whose score moved across the cursor is repeated or skipped on the following page.
+     */
+    List<Hit> search(String query, TaskFilter filter, Float afterScore, Long afterTaskId, int limit) {
+        Set<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Matches> perToken = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                Matches matches = match(token);
+                if (matches.size == 0) {
+                    return List.of();
+                }
+                perToken.add(matches);
+            }
+            // Intersect starting from the rarest token
+            perToken.sort((a, b) -> Integer.compare(a.size, b.size));
+            Matches result = perToken.get(0);
+            for (int i = 1; i < perToken.size() && result.size > 0; i++) {
+                result = result.intersect(perToken.get(i));
+            }
+            return topHits(result, filter, afterScore, afterTaskId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Hit> topHits(Matches matches, TaskFilter filter, Float afterScore, Long afterTaskId, int limit) {
+        // Min-heap on rank, so the weakest of the current top hits is at the head
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, TaskSearchIndex::compareRank);
+        for (int i = 0; i < matches.size; i++) {
+            int doc = matches.docs[i];
+            if (!live.get(doc) || !accepts(doc, filter)) {
+                continue;
+            }
+            Hit hit = new Hit(taskIds[doc], matches.scores[i]);
+            if (afterScore != null && compareRank(hit, new Hit(afterTaskId, afterScore)) >= 0) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(hit);
+            } else if (compareRank(hit, top.peek()) > 0) {
+                top.poll();
+                top.add(hit);
+            }
+        }
+        Hit[] hits = top.toArray(Hit[]::new);
+        Arrays.sort(hits, (a, b) -> compareRank(b, a));
+        return Arrays.asList(hits);
+    }
+
+    /**
+     * Positive when {@code a} ranks before {@code b}.
+     */
+    private static int compareRank(Hit a, Hit b) {
+        int byScore = Float.compare(a.score(), b.score());
+        return byScore != 0 ? byScore : Long.compare(b.taskId(), a.taskId());
+    }
+
+    private boolean accepts(int doc, TaskFilter filter) {
+        return (filter.status() == null || statuses[doc] == filter.status().ordinal())
+                && (filter.priority() == null || priorities[doc] == filter.priority().ordinal())
+                && (filter.projectId() == null || projectIds[doc] == filter.projectId())
+                && (filter.assignedToId() == null || assigneeIds[doc] == filter.assignedToId());
+    }
+
+    private Matches match(String token) {
+        Matches merged = new Matches(0);
+        for (Map.Entry<String, PostingList> entry : expand(token)) {
+            PostingList postings = entry.getValue();
+            float boost = idf(postings.size) * (entry.getKey().equals(token) ? 1f : PREFIX_PENALTY);
+            merged = merged.union(postings, boost);
+        }
+        return merged;
+    }
+
+    /**
+     * The terms {@code token} is a prefix of, itself included. Past {@link #MAX_PREFIX_EXPANSION} of them the
+     * token itself is kept and otherwise the terms in the most docs, so frequent words are not crowded out
+     * by rare ones that merely sort first.
+     */
+    private Collection<Map.Entry<String, PostingList>> expand(String token) {
+        NavigableMap<String, PostingList> expansion = terms.subMap(token, true, token + Character.MAX_VALUE, false);
+        if (expansion.size() <= MAX_PREFIX_EXPANSION) {
+            return expansion.entrySet();
+        }
+        Comparator<Map.Entry<String, PostingList>> byDocs = Comparator.comparingInt(
+                entry -> entry.getKey().equals(token) ? Integer.MAX_VALUE : entry.getValue().size);
+        // Min-heap on doc count, so the narrowest of the terms kept so far is at the head
+        PriorityQueue<Map.Entry<String, PostingList>> widest = new PriorityQueue<>(MAX_PREFIX_EXPANSION + 1, byDocs);
+        for (Map.Entry<String, PostingList> entry : expansion.entrySet()) {
+            widest.add(entry);
+            if (widest.size() > MAX_PREFIX_EXPANSION) {
+                widest.poll();
+            }
+        }
+        return widest;
+    }
+
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (double) (docCount - deadCount + 1) / (documentFrequency + 1));
+    }
+
+    private void addLocked(TaskSnapshot task) {
+        int doc = docCount++;
+        ensureCapacity(doc + 1);
+        taskIds[doc] = task.id();
+        versions[doc] = task.version();
+        statuses[doc] = (byte) task.status().ordinal();
+        priorities[doc] = (byte) task.priority().ordinal();
+        projectIds[doc] = task.projectId() == null ? NONE : task.projectId();
+        assigneeIds[doc] = task.assignedToId() == null ? NONE : task.assignedToId();
+        live.set(doc);
+        docByTaskId.put(task.id(), doc);
+
+        Map<String, Byte> fields = new HashMap<>();
+        for (String term : tokenize(task.title())) {
+            fields.merge(term, IN_TITLE, (a, b) -> (byte) (a | b));
+        }
+        for (String term : tokenize(task.description())) {
+            fields.merge(term, IN_DESCRIPTION, (a, b) -> (byte) (a | b));
+        }
+        fields.forEach((term, flags) -> terms.computeIfAbsent(term, t -> new PostingList()).add(doc, flags));
+    }
+
+    private void removeLocked(long taskId) {
+        Integer doc = docByTaskId.remove(taskId);
+        if (doc == null) {
+            return;
+        }
+        live.clear(doc);
+        deadCount++;
+        if (deadCount > 10_000 && deadCount > docCount - deadCount) {
+            compact();
+        }
+    }
+
+    /**
+     * Renumbers live docs densely and drops dead postings. Renumbering preserves order, so posting lists
+     * stay sorted. Caller holds the write lock.
+     */
+    private void compact() {
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            remap[doc] = live.get(doc) ? next++ : -1;
+            if (remap[doc] >= 0) {
+                int to = remap[doc];
+                taskIds[to] = taskIds[doc];
+                versions[to] = versions[doc];
+                statuses[to] = statuses[doc];
+                priorities[to] = priorities[doc];
+                projectIds[to] = projectIds[doc];
+                assigneeIds[to] = assigneeIds[doc];
+            }
+        }
+        terms.values().removeIf(postings -> postings.remap(remap) == 0);
+        docByTaskId.replaceAll((taskId, doc) -> remap[doc]);
+        live.clear();
+        live.set(0, next);
+        docCount = next;
+        deadCount = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= taskIds.length) {
+            return;
+        }
+        int grown = Math.max(capacity, taskIds.length * 2);
+        taskIds = Arrays.copyOf(taskIds, grown);
+        versions = Arrays.copyOf(versions, grown);
+        statuses = Arrays.copyOf(statuses, grown);
+        priorities = Arrays.copyOf(priorities, grown);
+        projectIds = Arrays.copyOf(projectIds, grown);
+        assigneeIds = Arrays.copyOf(assigneeIds, grown);
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_TOKEN_LENGTH) {
+                    tokens.add(lower.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static float weight(byte flags) {
+        return ((flags & IN_TITLE) != 0 ? TITLE_WEIGHT : 0f) + ((flags & IN_DESCRIPTION) != 0 ? DESCRIPTION_WEIGHT : 0f);
+    }
+
+    /**
+     * Docs containing a term, in increasing doc order, with the fields it occurs in.
+     */
+    private static final class PostingList {
+
+        private int[] docs = new int[4];
+        private byte[] flags = new byte[4];
+        private int size;
+
+        void add(int doc, byte fieldFlags) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                flags = Arrays.copyOf(flags, size * 2);
+            }
+            docs[size] = doc;
+            flags[size] = fieldFlags;
+            size++;
+        }
+
+        int remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    flags[kept] = flags[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return size;
+        }
+    }
+
+    /**
+     * Candidate docs for a query (or part of one), in increasing doc order, with accumulated scores.
+     */
+    private static final class Matches {
+
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        Matches(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        /**
+         * Docs in either input; a doc in both keeps the better score (alternatives for one token do not add up).
+         */
+        Matches union(PostingList postings, float boost) {
+            Matches out = new Matches(size + postings.size);
+            int i = 0;
+            int j = 0;
+            while (i < size || j < postings.size) {
+                if (j == postings.size || (i < size && docs[i] < postings.docs[j])) {
+                    out.append(docs[i], scores[i++]);
+                } else if (i == size || postings.docs[j] < docs[i]) {
+                    out.append(postings.docs[j], weight(postings.flags[j]) * boost);
+                    j++;
+                } else {
+                    out.append(docs[i], Math.max(scores[i], weight(postings.flags[j]) * boost));
+                    i++;
+                    j++;
+                }
+            }
+            return out;
+        }
+
+        Matches intersect(Matches other) {
+            Matches out = new Matches(Math.min(size, other.size));
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (docs[i] < other.docs[j]) {
+                    i++;
+                } else if (other.docs[j] < docs[i]) {
+                    j++;
+                } else {
+                    out.append(docs[i], scores[i] + other.scores[j]);
+                    i++;
+                    j++;
+                }
+            }
+            return out;
+        }
+
+        private void append(int doc, float score) {
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.taskmanager.app.service;
+
+import com.taskmanager.app.config.DataSourceRouting;
+import com.taskmanager.app.dto.CursorPage;
+import com.taskmanager.app.dto.TaskView;
+import com.taskmanager.app.event.TaskChangedEvent;
+import com.taskmanager.app.repository.TaskFilter;
+import com.taskmanager.app.repository.TaskRepository;
+import com.taskmanager.app.repository.TaskShards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over task titles and descriptions, served from {@link TaskSearchIndex}. The index is
+ * built from the database at startup and then follows committed {@link TaskChangedEvent}s.
+ *
+ * <p>The page cursor is the last hit's score and id. Scores depend on the whole index, so paging is
+ * best-effort when tasks change between requests: a task may then appear on two pages or on none.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskSearchService implements SmartInitializingSingleton {
+
+    private final TaskRepository taskRepository;
+    private final TaskShards taskShards;
+    private final PlatformTransactionManager transactionManager;
+    private final TaskSearchIndex index = new TaskSearchIndex();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        index.clear();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        // From the primary: the index is kept current by change events, so it must not start out behind them
+        DataSourceRouting.onPrimary(() -> taskShards.forEachShard(() -> readOnly.executeWithoutResult(status -> {
+            try (var snapshots = taskRepository.streamSnapshots()) {
+                snapshots.forEach(index::index);
+            }
+        })));
+        log.info("Indexed {} tasks for search in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.after() == null) {
+            index.remove(event.before().id());
+        } else {
+            index.index(event.after());
+        }
+    }
+
+    public CursorPage<TaskView> search(String query, TaskFilter filter, String after, int limit) {
+        Float afterScore = null;
+        Long afterTaskId = null;
+        if (after != null && !after.isBlank()) {
+            String[] cursor = decodeCursor(after);
+            afterScore = Float.valueOf(cursor[0]);
+            afterTaskId = Long.valueOf(cursor[1]);
+        }
+
+        List<TaskSearchIndex.Hit> hits = index.search(query, filter, afterScore, afterTaskId, limit + 1);
+        boolean more = hits.size() > limit;
+        List<TaskSearchIndex.Hit> page = more ? hits.subList(0, limit) : hits;
+        if (page.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        // One query for the page's rows, then restore rank order
+        Map<Long, TaskView> views = taskShards.findByIds(page.stream().map(TaskSearchIndex.Hit::taskId).toList(),
+                        taskRepository::findViewsByIds)
+                .stream()
+                .collect(Collectors.toMap(TaskView::id, Function.identity()));
+        List<TaskView> items = page.stream()
+                .map(hit -> views.get(hit.taskId()))
+                .filter(view -> view != null)
+                .toList();
+        TaskSearchIndex.Hit last = page.get(page.size() - 1);
+        return new CursorPage<>(items, more ? encodeCursor(last) : null);
+    }
+
+    private static String encodeCursor(TaskSearchIndex.Hit hit) {
+        String raw = hit.score() + "|" + hit.taskId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            Float.parseFloat(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + token, e);
+        }
+    }
+}
@@ -1,16 +1,47 @@
 package com.taskmanager.app.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.taskmanager.app.domain.Priority;
 import com.taskmanager.app.domain.Project;
 import com.taskmanager.app.domain.Task;
 import com.taskmanager.app.domain.TaskStatus;
 import com.taskmanager.app.domain.User;
+import com.taskmanager.app.dto.BulkAssigneeUpdate;
+import com.taskmanager.app.dto.BulkStatusUpdate;
+import com.taskmanager.app.dto.BulkUpdateResult;
+import com.taskmanager.app.dto.CursorPage;
+import com.taskmanager.app.dto.SparseRow;
+import com.taskmanager.app.dto.TaskBatchResult;
+import com.taskmanager.app.dto.TaskView;
+import com.taskmanager.app.event.TaskChangedEvent;
+import com.taskmanager.app.event.TaskSnapshot;
+import com.taskmanager.app.repository.FieldSet;
+import com.taskmanager.app.repository.TaskCursor;
+import com.taskmanager.app.repository.TaskFilter;
 import com.taskmanager.app.repository.TaskRepository;
+import com.taskmanager.app.repository.TaskShards;
+import com.taskmanager.app.repository.TaskSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
@@ -18,39 +49,99 @@ import java.util.List;
 public class TaskService {
 
     private final TaskRepository taskRepository;
+    private final TaskShards taskShards;
     private final UserService userService;
     private final ProjectService projectService;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${taskmanager.tasks.batch-size:50}")
+    private int batchSize;
+
+    // Merge order of cross-shard finder results
+    private static final Comparator<Task> BY_ID = Comparator.comparing(Task::getId);
+
+    @Transactional(readOnly = true)
     public List<Task> getAllTasks() {
-        return taskRepository.findAll();
+        return taskShards.findAll(taskRepository::findAll, BY_ID);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<TaskView> getTaskPage(TaskFilter filter, TaskSort sort, TaskCursor after, int limit) {
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<TaskView> rows = taskShards.find(filter.projectId(),
+                () -> taskRepository.findPage(filter, sort, after, limit + 1),
+                Comparator.comparing((TaskView view) -> TaskCursor.of(sort, view), sort.order()), limit + 1);
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<TaskView> items = rows.subList(0, limit);
+        return new CursorPage<>(items, TaskCursor.of(sort, items.get(limit - 1)).encode());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<SparseRow> getTaskPage(TaskFilter filter, TaskSort sort, TaskCursor after, int limit,
+                                             FieldSet fields) {
+        List<SparseRow> rows = taskShards.find(filter.projectId(),
+                () -> taskRepository.findPage(filter, sort, after, limit + 1, fields),
+                Comparator.comparing((SparseRow row) -> TaskCursor.of(sort, row), sort.order()), limit + 1);
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<SparseRow> items = rows.subList(0, limit);
+        return new CursorPage<>(items, TaskCursor.of(sort, items.get(limit - 1)).encode());
+    }
+
+    /**
+     * The task's version followed by those of its assignee, project and project creator (null when absent).
+     */
+    @Transactional(readOnly = true)
+    public List<Long> getTaskVersions(Long id) {
+        taskShards.routeToTask(id);
+        return taskRepository.findVersionsById(id).stream()
+                .findFirst()
+                .map(row -> Arrays.stream(row).map(Long.class::cast).toList())
+                .orElseThrow(() -> new RuntimeException("Task not found with id: " + id));
     }
 
+    @Transactional(readOnly = true)
     public Task getTaskById(Long id) {
+        taskShards.routeToTask(id);
         return taskRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Task not found with id: " + id));
     }
 
+    @Transactional(readOnly = true)
     public List<Task> getTasksByStatus(TaskStatus status) {
-        return taskRepository.findByStatus(status);
+        return taskShards.findAll(() -> taskRepository.findByStatus(status), BY_ID);
     }
 
+    @Transactional(readOnly = true)
     public List<Task> getTasksByPriority(Priority priority) {
-        return taskRepository.findByPriority(priority);
+        return taskShards.findAll(() -> taskRepository.findByPriority(priority), BY_ID);
     }
 
+    @Transactional(readOnly = true)
     public List<Task> getTasksByUserId(Long userId) {
-        return taskRepository.findByAssignedToId(userId);
+        return taskShards.findAll(() -> taskRepository.findByAssignedToId(userId), BY_ID);
     }
 
+    @Transactional(readOnly = true)
     public List<Task> getTasksByProjectId(Long projectId) {
+        taskShards.routeToProject(projectId);
         return taskRepository.findByProjectId(projectId);
     }
 
+    @Transactional(readOnly = true)
     public List<Task> getTasksByStatusAndPriority(TaskStatus status, Priority priority) {
-        return taskRepository.findByStatusAndPriority(status, priority);
+        return taskShards.findAll(() -> taskRepository.findByStatusAndPriority(status, priority), BY_ID);
     }
 
     public Task createTask(Task task) {
+        taskShards.routeToProject(projectIdOf(task));
+
         // Set assigned user if provided
         if (task.getAssignedTo() != null && task.getAssignedTo().getId() != null) {
             User user = userService.getUserById(task.getAssignedTo().getId());
@@ -63,11 +154,93 @@ public class TaskService {
             task.setProject(project);
         }
 
-        return taskRepository.save(task);
+        Task saved = taskRepository.save(task);
+        eventPublisher.publishEvent(TaskChangedEvent.created(TaskSnapshot.of(saved)));
+        return saved;
+    }
+
+    public List<TaskBatchResult> createTasks(List<Task> tasks) {
+        // Each shard's share of the batch in one go, by position so results keep the request's indexes
+        List<TaskBatchResult> results = taskShards.insert(IntStream.range(0, tasks.size()).boxed().toList(),
+                index -> projectIdOf(tasks.get(index)), indexes -> createTasks(tasks, indexes));
+        results.sort(Comparator.comparingInt(TaskBatchResult::index));
+        return results;
+    }
+
+    private List<TaskBatchResult> createTasks(List<Task> batch, List<Integer> indexes) {
+        List<Task> tasks = indexes.stream().map(batch::get).toList();
+        // One IN query per association instead of a lookup per task
+        Map<Long, User> users = userService.getUsersByIds(referencedIds(tasks, task ->
+                task.getAssignedTo() == null ? null : task.getAssignedTo().getId()));
+        Map<Long, Project> projects = projectService.getProjectsByIds(referencedIds(tasks, task ->
+                task.getProject() == null ? null : task.getProject().getId()));
+
+        List<TaskBatchResult> results = new ArrayList<>(tasks.size());
+        int pending = 0;
+        for (int position = 0; position < tasks.size(); position++) {
+            Task task = tasks.get(position);
+            int i = indexes.get(position);
+            if (task == null || task.getTitle() == null || task.getTitle().isBlank()) {
+                results.add(TaskBatchResult.failed(i, "Title is required"));
+                continue;
+            }
+            if (task.getAssignedTo() != null && task.getAssignedTo().getId() != null) {
+                User user = users.get(task.getAssignedTo().getId());
+                if (user == null) {
+                    results.add(TaskBatchResult.failed(i, "User not found with id: " + task.getAssignedTo().getId()));
+                    continue;
+                }
+                task.setAssignedTo(user);
+            } else {
+                task.setAssignedTo(null);
+            }
+            if (task.getProject() != null && task.getProject().getId() != null) {
+                Project project = projects.get(task.getProject().getId());
+                if (project == null) {
+                    results.add(TaskBatchResult.failed(i, "Project not found with id: " + task.getProject().getId()));
+                    continue;
+                }
+                task.setProject(project);
+            } else {
+                task.setProject(null);
+            }
+
+            task.setId(null);
+            entityManager.persist(task);
+            eventPublisher.publishEvent(TaskChangedEvent.created(TaskSnapshot.of(task)));
+            results.add(TaskBatchResult.created(i, task.getId()));
+
+            // Flush a full JDBC batch and drop it from the persistence context
+            if (++pending % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        return results;
+    }
+
+    private static Long projectIdOf(Task task) {
+        return task == null || task.getProject() == null ? null : task.getProject().getId();
+    }
+
+    private static Set<Long> referencedIds(List<Task> tasks, Function<Task, Long> idOf) {
+        return tasks.stream()
+                .filter(Objects::nonNull)
+                .map(idOf)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
     }
 
     public Task updateTask(Long id, Task taskDetails) {
+        return updateTask(id, taskDetails, null);
+    }
+
+    public Task updateTask(Long id, Task taskDetails, Long expectedVersion) {
+        taskShards.requireSameShard(id, projectIdOf(taskDetails));
         Task task = getTaskById(id);
+        VersionCheck.requireVersion(expectedVersion, task.getVersion());
+        TaskSnapshot before = TaskSnapshot.of(task);
+        requireTransition(id, task.getStatus(), taskDetails.getStatus());
 
         task.setTitle(taskDetails.getTitle());
         task.setDescription(taskDetails.getDescription());
@@ -91,17 +264,238 @@ public class TaskService {
             task.setProject(null);
         }
 
-        return taskRepository.save(task);
+        // Flushed here so the event carries the version this update commits
+        Task saved = taskRepository.saveAndFlush(task);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, TaskSnapshot.of(saved)));
+        return saved;
     }
 
-    public Task updateTaskStatus(Long id, TaskStatus status) {
+    private static final Set<String> PATCHABLE =
+            Set.of("title", "description", "status", "priority", "dueDate", "assignedTo", "project");
+
+    /**
+     * Applies a merge patch. Only members present in the patch are written (the entity uses dynamic
+     * updates) and associations are only looked up when the patch names them.
+     */
+    public Task patchTask(Long id, JsonNode patch, Long expectedVersion) {
+        MergePatch changes = MergePatch.of(patch, PATCHABLE);
         Task task = getTaskById(id);
-        task.setStatus(status);
-        return taskRepository.save(task);
+        VersionCheck.requireVersion(expectedVersion, task.getVersion());
+        TaskSnapshot before = TaskSnapshot.of(task);
+
+        if (changes.has("title")) {
+            task.setTitle(changes.requiredText("title"));
+        }
+        if (changes.has("description")) {
+            task.setDescription(changes.text("description"));
+        }
+        if (changes.has("status")) {
+            TaskStatus status = changes.requiredEnum("status", TaskStatus.class);
+            requireTransition(id, task.getStatus(), status);
+            task.setStatus(status);
+        }
+        if (changes.has("priority")) {
+            task.setPriority(changes.requiredEnum("priority", Priority.class));
+        }
+        if (changes.has("dueDate")) {
+            task.setDueDate(changes.date("dueDate"));
+        }
+        if (changes.has("assignedTo")) {
+            Long userId = changes.referenceId("assignedTo");
+            task.setAssignedTo(userId == null ? null : userService.getUserById(userId));
+        }
+        if (changes.has("project")) {
+            Long projectId = changes.referenceId("project");
+            taskShards.requireSameShard(id, projectId);
+            task.setProject(projectId == null ? null : projectService.getProjectById(projectId));
+        }
+
+        // Flushed here so the event carries the version this update commits
+        Task saved = taskRepository.saveAndFlush(task);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, TaskSnapshot.of(saved)));
+        return saved;
+    }
+
+    public Task updateTaskStatus(Long id, TaskStatus status) {
+        return updateTaskStatus(id, status, null);
+    }
+
+    public Task updateTaskStatus(Long id, TaskStatus status, Long expectedVersion) {
+        return updateTaskStatus(id, null, status, expectedVersion);
+    }
+
+    /**
+     * Moves a task to {@code status} with a single conditional UPDATE, without loading or locking it first.
+     * A null {@code expectedStatus} means "whatever it is now"; the status read to check the transition is
+     * still the one the update is conditioned on, so a concurrent move makes this one fail instead of
+     * overwriting it. Losers get 409 and are expected to re-read.
+     */
+    public Task updateTaskStatus(Long id, TaskStatus expectedStatus, TaskStatus status, Long expectedVersion) {
+        taskShards.routeToTask(id);
+        TaskStatus from = expectedStatus != null ? expectedStatus : taskRepository.findStatusById(id)
+                .orElseThrow(() -> new RuntimeException("Task not found with id: " + id));
+        requireTransition(id, from, status);
+        if (taskRepository.compareAndSetStatus(id, from, status, expectedVersion) == 0) {
+            // Only the failure path pays for finding out why
+            Task current = getTaskById(id);
+            VersionCheck.requireVersion(expectedVersion, current.getVersion());
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Task " + id + " is " + current.getStatus() + ", expected " + from);
+        }
+        Task saved = getTaskById(id);
+        TaskSnapshot after = TaskSnapshot.of(saved);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(
+                after.withStatus(from).withVersion(after.version() - 1), after));
+        return saved;
+    }
+
+    /**
+     * Moves the targeted tasks to {@code update.status()}. Tasks that may not make that move are left as they
+     * are and reported in the result's {@code rejected} list.
+     */
+    public BulkUpdateResult updateTaskStatuses(BulkStatusUpdate update) {
+        if (update.status() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "status is required");
+        }
+        List<BulkUpdateResult.Rejected> rejected = new ArrayList<>();
+        if (hasIds(update.ids(), update.filter())) {
+            int updated = taskShards.updateByIds(update.ids(), ids ->
+                    updateStatuses(taskRepository.lockSnapshotsByIds(ids), update.status(), rejected));
+            return new BulkUpdateResult(updated, rejected);
+        }
+        TaskFilter filter = update.filter();
+        // The update goes by the ids locked here rather than evaluating the filter again, so it changes
+        // exactly the rows it publishes events for
+        int updated = taskShards.update(filter.projectId(), () ->
+                updateStatuses(taskRepository.lockSnapshots(filter), update.status(), rejected));
+        return new BulkUpdateResult(updated, rejected);
+    }
+
+    private int updateStatuses(List<TaskSnapshot> locked, TaskStatus status,
+                               List<BulkUpdateResult.Rejected> rejected) {
+        List<TaskSnapshot> before = new ArrayList<>(locked.size());
+        for (TaskSnapshot snapshot : locked) {
+            if (snapshot.status().canTransitionTo(status)) {
+                before.add(snapshot);
+            } else {
+                rejected.add(new BulkUpdateResult.Rejected(snapshot.id(),
+                        "Cannot move task " + snapshot.id() + " from " + snapshot.status() + " to " + status));
+            }
+        }
+        if (before.isEmpty()) {
+            return 0;
+        }
+        int updated = taskRepository.updateStatusByIds(idsOf(before), status);
+        before.forEach(snapshot -> eventPublisher.publishEvent(
+                TaskChangedEvent.updated(snapshot,
+                        snapshot.withStatus(status).withVersion(snapshot.version() + 1))));
+        return updated;
+    }
+
+    private static void requireTransition(Long id, TaskStatus from, TaskStatus to) {
+        if (!from.canTransitionTo(to)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Cannot move task " + id + " from " + from + " to " + to);
+        }
+    }
+
+    public int updateTaskAssignees(BulkAssigneeUpdate update) {
+        if (hasIds(update.ids(), update.filter())) {
+            return taskShards.updateByIds(update.ids(), ids -> {
+                User assignee = assignee(update);
+                List<TaskSnapshot> before = taskRepository.lockSnapshotsByIds(ids);
+                int updated = taskRepository.updateAssigneeByIds(ids, assignee);
+                publishAssigneeChanges(before, update.assigneeId());
+                return updated;
+            });
+        }
+        TaskFilter filter = update.filter();
+        return taskShards.update(filter.projectId(), () -> {
+            User assignee = assignee(update);
+            List<TaskSnapshot> before = taskRepository.lockSnapshots(filter);
+            if (before.isEmpty()) {
+                return 0;
+            }
+            int updated = taskRepository.updateAssigneeByIds(idsOf(before), assignee);
+            publishAssigneeChanges(before, update.assigneeId());
+            return updated;
+        });
+    }
+
+    private static List<Long> idsOf(List<TaskSnapshot> snapshots) {
+        return snapshots.stream().map(TaskSnapshot::id).toList();
+    }
+
+    // Looked up inside each shard's transaction, which must not have touched another shard first
+    private User assignee(BulkAssigneeUpdate update) {
+        return update.assigneeId() == null ? null : userService.getUserById(update.assigneeId());
+    }
+
+    private void publishAssigneeChanges(List<TaskSnapshot> before, Long assigneeId) {
+        before.forEach(snapshot -> eventPublisher.publishEvent(
+                TaskChangedEvent.updated(snapshot,
+                        snapshot.withAssignedToId(assigneeId).withVersion(snapshot.version() + 1))));
+    }
+
+    /**
+     * Bulk updates must target either an id list or a non-empty filter, never the whole table by omission.
+     */
+    private static boolean hasIds(List<Long> ids, TaskFilter filter) {
+        boolean byIds = ids != null && !ids.isEmpty();
+        boolean byFilter = filter != null && !filter.equals(TaskFilter.none());
+        if (byIds == byFilter) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Specify either ids or a non-empty filter");
+        }
+        return byIds;
+    }
+
+    @Transactional(readOnly = true)
+    public long countTasksOfProject(Long projectId) {
+        taskShards.routeToProject(projectId);
+        return taskRepository.countByProjectId(projectId);
+    }
+
+    @Transactional(readOnly = true)
+    public long countTasksOfAssignee(Long userId) {
+        return taskShards.findAll(() -> List.of(taskRepository.countByAssigneeId(userId)), null).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    /**
+     * Deletes up to {@code limit} tasks of the project in one transaction and returns how many, so a
+     * deletion job can empty a large project without holding its locks for long.
+     */
+    public int deleteProjectTasks(Long projectId, int limit) {
+        return taskShards.update(projectId, () -> {
+            List<TaskSnapshot> before = taskRepository.lockSnapshotsByProjectId(projectId, Limit.of(limit));
+            if (!before.isEmpty()) {
+                taskRepository.deleteByIds(idsOf(before));
+                before.forEach(snapshot -> eventPublisher.publishEvent(TaskChangedEvent.deleted(snapshot)));
+            }
+            return before.size();
+        });
+    }
+
+    /**
+     * Unassigns up to {@code limit} of the user's tasks on each shard and returns how many, like
+     * {@link #deleteProjectTasks}.
+     */
+    public int unassignUserTasks(Long userId, int limit) {
+        return taskShards.update(null, () -> {
+            List<TaskSnapshot> before = taskRepository.lockSnapshotsByAssigneeId(userId, Limit.of(limit));
+            if (!before.isEmpty()) {
+                taskRepository.updateAssigneeByIds(idsOf(before), null);
+                publishAssigneeChanges(before, null);
+            }
+            return before.size();
+        });
     }
 
     public void deleteTask(Long id) {
         Task task = getTaskById(id);
+        TaskSnapshot before = TaskSnapshot.of(task);
         taskRepository.delete(task);
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(before));
     }
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+package com.taskmanager.app.service;
+
+import com.taskmanager.app.config.DataSourceRouting;
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.dto.TaskStats;
+import com.taskmanager.app.event.TaskChangedEvent;
+import com.taskmanager.app.event.TaskSnapshot;
+import com.taskmanager.app.repository.TaskRepository;
+import com.taskmanager.app.repository.TaskShards;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Task counts by status and priority, per project and overall, kept in memory. Rebuilt from two
+ * aggregate queries at startup and then maintained from committed {@link TaskChangedEvent}s, so
+ * serving stats never touches the tasks table.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskStatsService implements SmartInitializingSingleton {
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final TaskRepository taskRepository;
+    private final TaskShards taskShards;
+    private final ProjectService projectService;
+
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile Counters global = new Counters();
+    private final ConcurrentMap<Long, Counters> byProject = new ConcurrentHashMap<>();
+
+    /**
+     * Counts the tasks once, before the application takes requests; from then on only change events move the
+     * counters. There is deliberately no way to recount later: a write committing during the count would be
+     * seen by the queries and then applied again by its event.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        // From the primary, like the search index: later change events are applied on top of these counts
+        DataSourceRouting.onPrimary(this::rebuildCounters);
+    }
+
+    private void rebuildCounters() {
+        rebuildLock.writeLock().lock();
+        try {
+            Counters all = new Counters();
+            byProject.clear();
+            // Rows are added up one by one, so one group reported by several shards still sums correctly
+            for (Object[] row : taskShards.findAll(taskRepository::countByProjectStatusPriority, null)) {
+                Long projectId = (Long) row[0];
+                TaskStatus status = (TaskStatus) row[1];
+                Priority priority = (Priority) row[2];
+                long count = (Long) row[3];
+                all.add(status, priority, count);
+                if (projectId != null) {
+                    project(projectId).add(status, priority, count);
+                }
+            }
+            for (Object[] row : taskShards.findAll(taskRepository::countOpenByProjectAndDueDate, null)) {
+                Long projectId = (Long) row[0];
+                LocalDate dueDate = (LocalDate) row[1];
+                long count = (Long) row[2];
+                all.addOpenDue(dueDate, count);
+                if (projectId != null) {
+                    project(projectId).addOpenDue(dueDate, count);
+                }
+            }
+            global = all;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        rebuildLock.readLock().lock();
+        try {
+            if (event.before() != null) {
+                apply(event.before(), -1);
+            }
+            if (event.after() != null) {
+                apply(event.after(), 1);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public TaskStats getStats() {
+        return global.toStats(LocalDate.now());
+    }
+
+    public TaskStats getProjectStats(Long projectId) {
+        projectService.getProjectById(projectId);
+        Counters counters = byProject.get(projectId);
+        return (counters == null ? new Counters() : counters).toStats(LocalDate.now());
+    }
+
+    private void apply(TaskSnapshot task, int delta) {
+        global.add(task, delta);
+        if (task.projectId() != null) {
+            project(task.projectId()).add(task, delta);
+        }
+    }
+
+    private Counters project(Long projectId) {
+        return byProject.computeIfAbsent(projectId, id -> new Counters());
+    }
+
+    private static final class Counters {
+
+        private final AtomicLongArray cells = new AtomicLongArray(STATUSES.length * PRIORITIES.length);
+        // Tasks that are not DONE, by due date; overdue is the sum of the dates before today
+        private final ConcurrentSkipListMap<LocalDate, Long> openByDueDate = new ConcurrentSkipListMap<>();
+
+        void add(TaskSnapshot task, int delta) {
+            add(task.status(), task.priority(), delta);
+            if (task.status() != TaskStatus.DONE && task.dueDate() != null) {
+                addOpenDue(task.dueDate(), delta);
+            }
+        }
+
+        void add(TaskStatus status, Priority priority, long delta) {
+            cells.addAndGet(status.ordinal() * PRIORITIES.length + priority.ordinal(), delta);
+        }
+
+        void addOpenDue(LocalDate dueDate, long delta) {
+            openByDueDate.compute(dueDate, (date, count) -> {
+                long updated = (count == null ? 0 : count) + delta;
+                return updated == 0 ? null : updated;
+            });
+        }
+
+        TaskStats toStats(LocalDate today) {
+            long total = 0;
+            Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+            Map<Priority, Long> byPriority = new EnumMap<>(Priority.class);
+            Map<TaskStatus, Map<Priority, Long>> byStatusAndPriority = new EnumMap<>(TaskStatus.class);
+            for (Priority priority : PRIORITIES) {
+                byPriority.put(priority, 0L);
+            }
+            for (TaskStatus status : STATUSES) {
+                Map<Priority, Long> row = new EnumMap<>(Priority.class);
+                long statusTotal = 0;
+                for (Priority priority : PRIORITIES) {
+                    long count = cells.get(status.ordinal() * PRIORITIES.length + priority.ordinal());
+                    row.put(priority, count);
+                    byPriority.merge(priority, count, Long::sum);
+                    statusTotal += count;
+                }
+                byStatus.put(status, statusTotal);
+                byStatusAndPriority.put(status, row);
+                total += statusTotal;
+            }
+            long overdue = openByDueDate.headMap(today).values().stream().mapToLong(Long::longValue).sum();
+            return new TaskStats(total, byStatus, byPriority, byStatusAndPriority, overdue);
+        }
+    }
+}
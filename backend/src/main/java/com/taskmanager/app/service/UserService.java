@@ -1,12 +1,29 @@
 package com.taskmanager.app.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.taskmanager.app.domain.User;
+import com.taskmanager.app.event.ChangeType;
+import com.taskmanager.app.event.EntityChangedEvent;
+import com.taskmanager.app.event.EntityPurgedEvent;
+import com.taskmanager.app.dto.SparseRow;
+import com.taskmanager.app.event.EntityType;
+import com.taskmanager.app.repository.FieldSet;
 import com.taskmanager.app.repository.UserRepository;
+import com.taskmanager.app.repository.SparseRowRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -14,41 +31,113 @@ import java.util.List;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final SparseRowRepository sparseRowRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<SparseRow> getAllUsers(FieldSet fields) {
+        return sparseRowRepository.findAll(User.class, fields);
+    }
+
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
 
+    @Transactional(readOnly = true)
+    public Long getUserVersion(Long id) {
+        return userRepository.findVersionById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, User> getUsersByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
     }
 
     public User createUser(User user) {
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new RuntimeException("User with email " + user.getEmail() + " already exists");
+        if (userRepository.existsByEmailIncludingDeleted(user.getEmail())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "User with email " + user.getEmail() + " already exists");
         }
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityType.USER, saved.getId(), ChangeType.CREATED));
+        return saved;
     }
 
     public User updateUser(Long id, User userDetails) {
+        return updateUser(id, userDetails, null);
+    }
+
+    public User updateUser(Long id, User userDetails, Long expectedVersion) {
         User user = getUserById(id);
+        VersionCheck.requireVersion(expectedVersion, user.getVersion());
         user.setName(userDetails.getName());
         if (!user.getEmail().equals(userDetails.getEmail()) &&
-            userRepository.existsByEmail(userDetails.getEmail())) {
-            throw new RuntimeException("Email already in use");
+            userRepository.existsByEmailIncludingDeleted(userDetails.getEmail())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already in use");
         }
         user.setEmail(userDetails.getEmail());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityType.USER, id, ChangeType.UPDATED));
+        return saved;
     }
 
-    public void deleteUser(Long id) {
+    public User patchUser(Long id, JsonNode patch, Long expectedVersion) {
+        MergePatch changes = MergePatch.of(patch, Set.of("name", "email"));
         User user = getUserById(id);
-        userRepository.delete(user);
+        VersionCheck.requireVersion(expectedVersion, user.getVersion());
+        if (changes.has("name")) {
+            user.setName(changes.requiredText("name"));
+        }
+        if (changes.has("email")) {
+            String email = changes.requiredText("email");
+            if (!user.getEmail().equals(email) && userRepository.existsByEmailIncludingDeleted(email)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already in use");
+            }
+            user.setEmail(email);
+        }
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityType.USER, id, ChangeType.UPDATED));
+        return saved;
+    }
+
+    /**
+     * First step of a user's deletion: hides the user from every read and announces the deletion.
+     * {@link CascadeDeletionService} detaches their tasks and projects and then removes the row. The email stays
+     * taken until then.
+     */
+    public void markUserDeleted(Long id) {
+        if (userRepository.markDeleted(id, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("User not found with id: " + id);
+        }
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityType.USER, id, ChangeType.DELETED));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> getMarkedDeletedUserIds() {
+        return userRepository.findMarkedDeletedIds();
+    }
+
+    public void purgeUser(Long id) {
+        if (userRepository.purgeMarked(id) > 0) {
+            eventPublisher.publishEvent(new EntityPurgedEvent(EntityType.USER, id));
+        }
     }
-}
\ No newline at end of file
+}
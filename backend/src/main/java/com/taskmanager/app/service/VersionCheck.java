@@ -0,0 +1,20 @@
+package com.taskmanager.app.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+final class VersionCheck {
+
+    private VersionCheck() {
+    }
+
+    /**
+     * Rejects a write made against a stale copy. A null {@code expected} means the client sent no If-Match.
+     */
+    static void requireVersion(Long expected, Long actual) {
+        if (expected != null && !expected.equals(actual)) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "Version " + expected + " is stale, current version is " + actual);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.taskmanager.app.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Virtual-thread mode with a two-connection pool: requests that need no connection are never held back by
+ * those waiting for one, and those waiting are served in turn rather than timing out inside Hikari.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:admission;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "taskmanager.datasource.admission-timeout=3s"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class ConnectionAdmissionTest {
+
+    private static final String DATABASE = "/api/tasks?limit=20";
+    private static final String IN_MEMORY = "/api/tasks/stats";
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void servesConcurrentClientsThroughTheConnectionPool() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            responses.add(send(i % 2 == 0 ? DATABASE : IN_MEMORY));
+        }
+        assertThat(responses).allSatisfy(response -> assertThat(response.join().statusCode()).isEqualTo(200));
+    }
+
+    @Test
+    void inMemoryRequestsDoNotWaitForConnections() throws Exception {
+        CompletableFuture<HttpResponse<Void>> waiting;
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            waiting = send(DATABASE);
+            List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                responses.add(send(IN_MEMORY));
+            }
+            for (CompletableFuture<HttpResponse<Void>> response : responses) {
+                assertThat(response.get(2, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+            }
+            assertThat(waiting).isNotDone();
+        }
+        assertThat(waiting.get(2, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void givesUpAfterTheAdmissionTimeout() throws Exception {
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            long start = System.nanoTime();
+            HttpResponse<Void> response = send(DATABASE).get(10, TimeUnit.SECONDS);
+            assertThat(response.statusCode()).isGreaterThanOrEqualTo(500);
+            assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.SECONDS.toNanos(3));
+        }
+    }
+
+    private CompletableFuture<HttpResponse<Void>> send(String path) {
+        return client.sendAsync(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.discarding());
+    }
+}
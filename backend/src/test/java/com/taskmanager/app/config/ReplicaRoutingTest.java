@@ -0,0 +1,140 @@
+package com.taskmanager.app.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.service.TaskService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two in-memory databases as primary and replica, the replica only catching up when a test copies the
+ * primary over. Reads go to the replica and so see its lag, except for a client whose read-your-writes
+ * cookie from a recent write is still valid, and for work run on the primary explicitly.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "taskmanager.datasource.replica.jdbc-url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "taskmanager.datasource.replica.username=sa",
+        "taskmanager.datasource.replica.read-your-writes=5s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+class ReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private Replication replication;
+
+    @TestConfiguration
+    static class ReplicationConfig {
+
+        @Bean
+        Replication replication(@Qualifier("primaryDataSource") DataSource primary,
+                                @Qualifier("replicaDataSource") DataSource replica) {
+            return new Replication(new JdbcTemplate(primary), new JdbcTemplate(replica));
+        }
+    }
+
+    /**
+     * Copies the primary's schema and rows to the replica; first once the schema exists, before anything
+     * reads at startup.
+     */
+    record Replication(JdbcTemplate primary, JdbcTemplate replica) {
+
+        @EventListener(ContextRefreshedEvent.class)
+        public void catchUp() {
+            replica.execute("DROP ALL OBJECTS");
+            for (String statement : primary.queryForList("SCRIPT", String.class)) {
+                replica.execute(statement);
+            }
+        }
+    }
+
+    @Test
+    void readsSeeTheReplicaUnlessTheClientWroteRecently() throws Exception {
+        Task task = create("Replicated");
+        replication.catchUp();
+
+        MvcResult write = mockMvc.perform(put("/api/tasks/" + task.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Only on the primary\",\"status\":\"TODO\",\"priority\":\"MEDIUM\"}"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWritesInterceptor.COOKIE))
+                .andExpect(cookie().maxAge(ReadYourWritesInterceptor.COOKIE, 5))
+                .andReturn();
+        Cookie pinned = write.getResponse().getCookie(ReadYourWritesInterceptor.COOKIE);
+
+        mockMvc.perform(get("/api/tasks/" + task.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Replicated"));
+        mockMvc.perform(get("/api/tasks/" + task.getId()).cookie(pinned))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Only on the primary"));
+        Cookie expired = new Cookie(ReadYourWritesInterceptor.COOKIE,
+                Long.toString(System.currentTimeMillis() - 1));
+        mockMvc.perform(get("/api/tasks/" + task.getId()).cookie(expired))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Replicated"));
+
+        replication.catchUp();
+        mockMvc.perform(get("/api/tasks/" + task.getId()))
+                .andExpect(jsonPath("$.title").value("Only on the primary"));
+    }
+
+    @Test
+    void readOnlyWorkPinnedToThePrimarySeesTheLatestWrite() throws Exception {
+        Task task = create("Not replicated yet");
+
+        assertThatThrownBy(() -> taskService.getTaskById(task.getId())).hasMessageContaining("not found");
+
+        AtomicReference<String> title = new AtomicReference<>();
+        DataSourceRouting.onPrimary(() -> title.set(taskService.getTaskById(task.getId()).getTitle()));
+        assertThat(title).hasValue("Not replicated yet");
+        assertThat(DataSourceRouting.isPinnedToPrimary()).isFalse();
+    }
+
+    private Task create(String title) throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"" + title + "\",\"status\":\"TODO\",\"priority\":\"MEDIUM\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReadYourWritesInterceptor.COOKIE))
+                .andReturn();
+        return objectMapper.readValue(created.getResponse().getContentAsString(), Task.class);
+    }
+}
@@ -0,0 +1,170 @@
+package com.taskmanager.app.config;
+
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.TaskIdGenerator;
+import com.taskmanager.app.domain.User;
+import com.taskmanager.app.dto.TaskBatchResult;
+import com.taskmanager.app.dto.TaskView;
+import com.taskmanager.app.repository.TaskFilter;
+import com.taskmanager.app.repository.TaskSort;
+import com.taskmanager.app.service.ProjectService;
+import com.taskmanager.app.service.TaskService;
+import com.taskmanager.app.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tasks spread over three in-memory databases: each project's tasks land on its shard, users and projects
+ * are on every shard as soon as they commit (and gone again if they roll back), and reads without a project
+ * gather the tasks of all shards.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharding0;DB_CLOSE_DELAY=-1",
+        "taskmanager.sharding.shard-urls=jdbc:h2:mem:sharding1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:sharding2;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class ShardingTest {
+
+    private static final int SHARDS = 3;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    void tasksOfProjectsOnEveryShardReadBackTogether() {
+        User owner = user("owner@example.com");
+        List<Project> projects = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            projects.add(project(owner, "Project " + i));
+        }
+        assertThat(projects).extracting(project -> TaskIdGenerator.shardOfProject(project.getId(), SHARDS))
+                .containsExactlyInAnyOrder(0, 1, 2);
+
+        List<Long> ids = new ArrayList<>();
+        for (Project project : projects) {
+            Task single = taskService.createTask(
+                    Task.builder().title("Single " + project.getName()).project(project).assignedTo(owner).build());
+            ids.add(single.getId());
+            List<TaskBatchResult> batch = taskService.createTasks(List.of(
+                    Task.builder().title("Batch " + project.getName()).project(project).build(),
+                    Task.builder().title("Batch " + project.getName()).project(project).build()));
+            batch.forEach(result -> ids.add(result.id()));
+        }
+        ids.add(taskService.createTask(Task.builder().title("No project").build()).getId());
+
+        for (Project project : projects) {
+            int shard = TaskIdGenerator.shardOfProject(project.getId(), SHARDS);
+            assertThat(taskService.getTasksByProjectId(project.getId())).hasSize(3)
+                    .allMatch(task -> TaskIdGenerator.shardOfTask(task.getId()) == shard);
+            assertThat(shard(shard).queryForObject(
+                    "select count(*) from tasks where project_id = ?", Long.class, project.getId())).isEqualTo(3);
+        }
+        // Other tests add tasks of their own
+        assertThat(taskService.getAllTasks().stream().map(Task::getId).filter(ids::contains))
+                .containsExactlyElementsOf(ids.stream().sorted().toList());
+        assertThat(taskService.getTasksByUserId(owner.getId())).hasSize(SHARDS);
+        List<TaskView> page = taskService.getTaskPage(TaskFilter.none(), TaskSort.CREATED_AT, null, 100).items();
+        assertThat(page).extracting(TaskView::id).containsAll(ids);
+        for (Long id : ids) {
+            assertThat(taskService.getTaskById(id).getId()).isEqualTo(id);
+        }
+    }
+
+    @Test
+    void referenceRowsReachEveryShardBeforeTheyCommit() {
+        User owner = user("early@example.com");
+        List<Long> copiesAtCommit = new ArrayList<>();
+
+        Project project = new TransactionTemplate(transactionManager).execute(status -> {
+            Project created = project(owner, "Early");
+            // Runs before any after-commit work of the application, as another request could
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCommit() {
+                    IntStream.range(0, SHARDS).forEach(shard -> copiesAtCommit.add(count(shard, created.getId())));
+                }
+            });
+            return created;
+        });
+
+        assertThat(copiesAtCommit).containsOnly(1L).hasSize(SHARDS);
+        Task task = taskService.createTask(Task.builder().title("Right away").project(project).build());
+        assertThat(taskService.getTaskById(task.getId()).getProject().getId()).isEqualTo(project.getId());
+    }
+
+    @Test
+    void rolledBackReferenceRowsLeaveTheShards() {
+        User owner = user("undo@example.com");
+        Project kept = project(owner, "Kept");
+
+        List<Long> discarded = new ArrayList<>();
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            discarded.add(project(owner, "Discarded").getId());
+            projectService.updateProject(kept.getId(), Project.builder().name("Renamed").build());
+            // Fails the commit after the copies went out
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    throw new IllegalStateException("Commit refused");
+                }
+            });
+        })).hasMessage("Commit refused");
+
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertThat(count(shard, discarded.get(0))).isZero();
+            assertThat(shard(shard).queryForObject("select name from projects where id = ?", String.class,
+                    kept.getId())).isEqualTo("Kept");
+        }
+    }
+
+    private User user(String email) {
+        return userService.createUser(User.builder().name("User").email(email).build());
+    }
+
+    private Project project(User owner, String name) {
+        return projectService.createProject(Project.builder().name(name).createdBy(owner).build());
+    }
+
+    private long count(int shard, Long projectId) {
+        return shard(shard).queryForObject("select count(*) from projects where id = ?", Long.class, projectId);
+    }
+
+    private JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(shardRoutingDataSource.shard(shard));
+    }
+}
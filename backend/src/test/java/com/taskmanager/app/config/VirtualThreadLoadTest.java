@@ -0,0 +1,141 @@
+package com.taskmanager.app.config;
+
+import com.taskmanager.app.TaskManagerApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The same workload against platform and virtual threads, on a database that takes {@code LATENCY_MILLIS} to hand out
+ * each connection. With platform threads the {@code TOMCAT_THREADS} request threads are what runs out, while the
+ * connection pool sits mostly idle; with virtual threads requests only queue for connections, so throughput
+ * follows the pool size instead.
+ */
+class VirtualThreadLoadTest {
+
+    private static final long LATENCY_MILLIS = 200;
+    private static final int TOMCAT_THREADS = 4;
+    private static final int POOL_SIZE = 32;
+    private static final int CLIENTS = 32;
+    private static final int REQUESTS_PER_CLIENT = 4;
+
+    @Test
+    void virtualThreadsServeSlowDatabaseRequestsFaster() throws Exception {
+        Load platform = run(false);
+        Load virtual = run(true);
+
+        assertThat(platform.connections()).isGreaterThanOrEqualTo(CLIENTS * REQUESTS_PER_CLIENT);
+        assertThat(virtual.connections()).isGreaterThanOrEqualTo(CLIENTS * REQUESTS_PER_CLIENT);
+        // Ideal ratio is POOL_SIZE / TOMCAT_THREADS = 8
+        assertThat(virtual.throughput()).isGreaterThan(2 * platform.throughput());
+        assertThat(virtual.percentile(50)).isLessThan(platform.percentile(50) / 2);
+        assertThat(virtual.percentile(99)).isLessThan(platform.percentile(99));
+    }
+
+    private record Load(long connections, long elapsedNanos, List<Long> latencies) {
+
+        double throughput() {
+            return latencies.size() * 1e9 / elapsedNanos;
+        }
+
+        long percentile(int p) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return sorted.get(Math.min(sorted.size() - 1, sorted.size() * p / 100));
+        }
+    }
+
+    private Load run(boolean virtualThreads) throws Exception {
+        AtomicLong connections = new AtomicLong();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TaskManagerApplication.class)
+                .profiles("test")
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(slowConnections(connections)))
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:load" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--server.tomcat.threads.min-spare=" + TOMCAT_THREADS)) {
+            String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/tasks?limit=20";
+            HttpClient client = HttpClient.newHttpClient();
+            send(client, url);
+            connections.set(0);
+
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            try {
+                List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+                List<Future<?>> done = new ArrayList<>();
+                long start = System.nanoTime();
+                for (int i = 0; i < CLIENTS; i++) {
+                    done.add(clients.submit(() -> {
+                        for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                            long sent = System.nanoTime();
+                            assertThat(send(client, url).statusCode()).isEqualTo(200);
+                            latencies.add(System.nanoTime() - sent);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : done) {
+                    future.get(60, TimeUnit.SECONDS);
+                }
+                return new Load(connections.get(), System.nanoTime() - start, latencies);
+            } finally {
+                clients.shutdownNow();
+            }
+        }
+    }
+
+    private static HttpResponse<Void> send(HttpClient client, String url) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    /**
+     * Delays every connection handed out by the application DataSource, as a remote database would, while the
+     * connection is already held.
+     */
+    private static BeanPostProcessor slowConnections(AtomicLong connections) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || !beanName.equals("dataSource")) {
+                    return bean;
+                }
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        Connection connection = super.getConnection();
+                        connections.incrementAndGet();
+                        try {
+                            Thread.sleep(LATENCY_MILLIS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return connection;
+                    }
+                };
+            }
+        };
+    }
+}
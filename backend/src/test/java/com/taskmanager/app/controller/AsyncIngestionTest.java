@@ -0,0 +1,133 @@
+package com.taskmanager.app.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.app.dto.IngestTicket;
+import com.taskmanager.app.service.TaskIngestionService;
+import com.taskmanager.app.service.TaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Async creates answer 202 with a ticket that resolves to the new task once its group commits, and 429 once
+ * the queue is full. The writer is held inside its insert so the queue fills deterministically.
+ */
+@SpringBootTest(properties = {
+        "taskmanager.ingest.queue-capacity=2",
+        "taskmanager.ingest.max-batch=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+class AsyncIngestionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskIngestionService taskIngestionService;
+
+    @SpyBean
+    private TaskService taskService;
+
+    @Test
+    void ticketsResolveAndAFullQueueIsRefused() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(30, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(taskService).createTasks(anyList());
+
+        List<IngestTicket> tickets = new ArrayList<>();
+        try {
+            tickets.add(accepted("Held by the writer"));
+            assertThat(writing.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(taskIngestionService.queueDepth()).isZero();
+            tickets.add(accepted("Queued 1"));
+            tickets.add(accepted("Queued 2"));
+
+            submit("Overflow").andExpect(status().isTooManyRequests());
+            mockMvc.perform(get("/api/tasks/ingest/" + tickets.get(0).ticket()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value("QUEUED"));
+        } finally {
+            release.countDown();
+        }
+
+        for (int i = 0; i < tickets.size(); i++) {
+            IngestTicket ticket = awaitResolved(tickets.get(i).ticket());
+            assertThat(ticket.status()).isEqualTo(IngestTicket.Status.CREATED);
+            assertThat(taskService.getTaskById(ticket.taskId()).getTitle())
+                    .isEqualTo(i == 0 ? "Held by the writer" : "Queued " + i);
+        }
+        // Room again once the writer caught up
+        accepted("After the backlog");
+    }
+
+    @Test
+    void invalidAsyncRequestsAreRejectedUpFront() throws Exception {
+        mockMvc.perform(post("/api/tasks?mode=async").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\" \"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/tasks?mode=later").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Later\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/tasks/ingest/no-such-ticket")).andExpect(status().isNotFound());
+    }
+
+    private IngestTicket accepted(String title) throws Exception {
+        MvcResult result = submit(title)
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andReturn();
+        IngestTicket ticket = objectMapper.readValue(result.getResponse().getContentAsString(), IngestTicket.class);
+        assertThat(result.getResponse().getHeader(HttpHeaders.LOCATION))
+                .isEqualTo("/api/tasks/ingest/" + ticket.ticket());
+        return ticket;
+    }
+
+    private ResultActions submit(String title) throws Exception {
+        return mockMvc.perform(post("/api/tasks?mode=async").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"" + title + "\",\"status\":\"TODO\",\"priority\":\"MEDIUM\"}"));
+    }
+
+    private IngestTicket awaitResolved(String ticket) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (true) {
+            IngestTicket state = objectMapper.readValue(mockMvc.perform(get("/api/tasks/ingest/" + ticket))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), IngestTicket.class);
+            if (state.status() != IngestTicket.Status.QUEUED || System.nanoTime() > deadline) {
+                return state;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.taskmanager.app.controller;
+
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.service.TaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Committed changes reach live subscribers; a reconnecting client resumes after its Last-Event-ID, and is told
+ * to reload when that id is not one the feed still holds.
+ */
+@SpringBootTest(properties = "taskmanager.changes.history-size=4")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+class ChangeFeedTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskService taskService;
+
+    private record Event(String id, String name, String data) {
+    }
+
+    @Test
+    void subscriberResumesAfterItsLastEventId() throws Exception {
+        MvcResult live = subscribe(null);
+        Task first = taskService.createTask(Task.builder().title("First").build());
+        Event seen = awaitEvents(live, 1).get(0);
+        assertThat(seen.name()).isEqualTo("change");
+        assertThat(seen.data()).contains("\"id\":" + first.getId(), "\"change\":\"CREATED\"");
+
+        // Missed while disconnected
+        Task second = taskService.createTask(Task.builder().title("Second").build());
+        Task third = taskService.createTask(Task.builder().title("Third").build());
+
+        List<Event> replayed = awaitEvents(subscribe(seen.id()), 2);
+        assertThat(replayed).extracting(Event::name).containsExactly("change", "change");
+        assertThat(replayed.get(0).data()).contains("\"id\":" + second.getId());
+        assertThat(replayed.get(1).data()).contains("\"id\":" + third.getId());
+        assertThat(awaitEvents(live, 3)).extracting(Event::id)
+                .containsExactly(seen.id(), replayed.get(0).id(), replayed.get(1).id());
+    }
+
+    @Test
+    void unknownOrExpiredIdsGetAReset() throws Exception {
+        Task task = taskService.createTask(Task.builder().title("Old").build());
+        MvcResult live = subscribe(null);
+        taskService.updateTask(task.getId(), Task.builder().title("Newer").status(TaskStatus.TODO)
+                .priority(Priority.MEDIUM).build());
+        String old = awaitEvents(live, 1).get(0).id();
+
+        assertThat(awaitEvents(subscribe("previous-run-7"), 1)).extracting(Event::name).containsExactly("reset");
+
+        // More changes than the history holds push the old id out
+        for (int i = 0; i < 5; i++) {
+            taskService.createTask(Task.builder().title("Filler " + i).build());
+        }
+        assertThat(awaitEvents(subscribe(old), 1)).extracting(Event::name).containsExactly("reset");
+
+        String future = old.substring(0, old.lastIndexOf('-') + 1) + Long.MAX_VALUE;
+        assertThat(awaitEvents(subscribe(future), 1)).extracting(Event::name).containsExactly("reset");
+    }
+
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder stream = get("/api/changes/stream").accept(MediaType.TEXT_EVENT_STREAM);
+        if (lastEventId != null) {
+            stream.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(stream).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private static List<Event> awaitEvents(MvcResult stream, int count) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        List<Event> events = parse(stream.getResponse().getContentAsString());
+        while (events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            events = parse(stream.getResponse().getContentAsString());
+        }
+        assertThat(events).hasSize(count);
+        return events;
+    }
+
+    private static List<Event> parse(String body) {
+        List<Event> events = new ArrayList<>();
+        for (String block : body.split("\n\n")) {
+            String id = null;
+            String name = null;
+            String data = null;
+            for (String line : block.split("\n")) {
+                if (line.startsWith("id:")) {
+                    id = line.substring(3);
+                } else if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                } else if (line.startsWith("data:")) {
+                    data = line.substring(5);
+                }
+            }
+            if (name != null) {
+                events.add(new Event(id, name, data));
+            }
+        }
+        return events;
+    }
+}
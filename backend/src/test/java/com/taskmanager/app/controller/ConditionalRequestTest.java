@@ -0,0 +1,113 @@
+package com.taskmanager.app.controller;
+
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.User;
+import com.taskmanager.app.service.TaskService;
+import com.taskmanager.app.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A task's strong tag revalidates until the task or a row embedded in it changes, and names the version
+ * If-Match is checked against; listings carry a weak tag over the tables they read.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+class ConditionalRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void taskTagRevalidatesUntilTheTaskOrItsAssigneeChanges() throws Exception {
+        User assignee = userService.createUser(User.builder().name("Ann").email("ann@example.com").build());
+        Task task = taskService.createTask(Task.builder().title("Tagged").assignedTo(assignee).build());
+        String url = "/api/tasks/" + task.getId();
+
+        String etag = etag(url);
+        assertThat(etag).startsWith("\"" + task.getVersion() + "-" + assignee.getVersion() + "-");
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        // The task row is untouched, but its body embeds the assignee's new name
+        userService.updateUser(assignee.getId(), User.builder().name("Anna").email("ann@example.com").build());
+        String renamed = etag(url);
+        assertThat(renamed).isNotEqualTo(etag);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assignedTo.name").value("Anna"));
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, renamed))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void writesRequireTheCurrentVersion() throws Exception {
+        Task task = taskService.createTask(Task.builder().title("Contended").build());
+        String url = "/api/tasks/" + task.getId();
+        String etag = etag(url);
+
+        String written = mockMvc.perform(put(url).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"First\",\"status\":\"TODO\",\"priority\":\"MEDIUM\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(written).isNotEqualTo(etag);
+
+        // A client still holding the old tag lost the race
+        mockMvc.perform(put(url).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Second\",\"status\":\"TODO\",\"priority\":\"MEDIUM\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put(url).header(HttpHeaders.IF_MATCH, "W/" + written)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Second\",\"status\":\"TODO\",\"priority\":\"MEDIUM\"}"))
+                .andExpect(status().isPreconditionFailed());
+        assertThat(taskService.getTaskById(task.getId()).getTitle()).isEqualTo("First");
+        assertThat(etag(url)).isEqualTo(written);
+    }
+
+    @Test
+    void listTagIsWeakAndChangesWithAnyWrite() throws Exception {
+        taskService.createTask(Task.builder().title("Listed").build());
+        String etag = etag("/api/tasks");
+        assertThat(etag).startsWith("W/\"");
+        mockMvc.perform(get("/api/tasks").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        taskService.createTask(Task.builder().title("Added").build());
+        mockMvc.perform(get("/api/tasks").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        assertThat(etag("/api/tasks")).isNotEqualTo(etag);
+    }
+
+    private String etag(String url) throws Exception {
+        return mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,124 @@
+package com.taskmanager.app.controller;
+
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.User;
+import com.taskmanager.app.service.ProjectService;
+import com.taskmanager.app.service.TaskService;
+import com.taskmanager.app.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The list endpoints run the same number of statements whatever the number of rows they return, i.e. no
+ * association is loaded row by row. The second-level cache is cleared before each request so cache hits
+ * cannot hide such loads.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+class ListQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TaskService taskService;
+
+    private User hubUser;
+    private Project hubProject;
+    private int seeded;
+
+    @Test
+    void listStatementCountDoesNotGrowWithRows() throws Exception {
+        hubUser = createUser();
+        hubProject = createProject(hubUser);
+
+        seed(3);
+        Map<String, Long> few = countStatements();
+        seed(30);
+        Map<String, Long> many = countStatements();
+
+        assertThat(few.values()).allMatch(statements -> statements > 0);
+        assertThat(many).isEqualTo(few);
+    }
+
+    /**
+     * Adds {@code count} users, each creating a project, a task of the hub user in each of those projects and
+     * a task of each of those users in the hub project, so every list returns rows with distinct references.
+     */
+    private void seed(int count) {
+        for (int i = 0; i < count; i++) {
+            User user = createUser();
+            Project project = createProject(user);
+            createTask(hubUser, project);
+            createTask(user, hubProject);
+        }
+    }
+
+    private Map<String, Long> countStatements() throws Exception {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String url : List.of(
+                "/api/tasks?limit=500",
+                "/api/tasks?limit=500&sort=dueDate",
+                "/api/tasks?limit=500&fields=id,title,assignedTo,project",
+                "/api/tasks/user/" + hubUser.getId() + "?limit=500",
+                "/api/tasks/project/" + hubProject.getId() + "?limit=500",
+                "/api/tasks/search?q=task&limit=500",
+                "/api/projects",
+                "/api/projects?fields=id,name,createdBy",
+                "/api/projects/user/" + hubUser.getId(),
+                "/api/users",
+                "/api/users?fields=id,name")) {
+            counts.put(url, statementsFor(url));
+        }
+        return counts;
+    }
+
+    private long statementsFor(String url) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User createUser() {
+        int n = ++seeded;
+        return userService.createUser(User.builder().name("User " + n).email("user" + n + "@example.com").build());
+    }
+
+    private Project createProject(User creator) {
+        return projectService.createProject(Project.builder().name("Project " + seeded).createdBy(creator).build());
+    }
+
+    private void createTask(User assignee, Project project) {
+        taskService.createTask(Task.builder().title("Task " + seeded).assignedTo(assignee).project(project).build());
+    }
+}
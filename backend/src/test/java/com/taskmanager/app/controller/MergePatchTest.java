@@ -0,0 +1,105 @@
+package com.taskmanager.app.controller;
+
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.domain.User;
+import com.taskmanager.app.service.ProjectService;
+import com.taskmanager.app.service.TaskService;
+import com.taskmanager.app.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Merge patches set the members they name, clear those given as null and leave the rest alone; associations
+ * are re-pointed by id, never merged into.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+class MergePatchTest {
+
+    private static final MediaType MERGE_PATCH = MediaType.valueOf("application/merge-patch+json");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Test
+    void patchSetsClearsAndLeavesFields() throws Exception {
+        User owner = userService.createUser(User.builder().name("Owner").email("owner@example.com").build());
+        User other = userService.createUser(User.builder().name("Other").email("other@example.com").build());
+        Project project = projectService.createProject(Project.builder().name("Patched").createdBy(owner).build());
+        Task task = taskService.createTask(Task.builder().title("Original").description("Going away")
+                .status(TaskStatus.TODO).priority(Priority.HIGH).dueDate(LocalDate.of(2030, 1, 1))
+                .assignedTo(owner).project(project).build());
+
+        apply(task.getId(), "{\"description\":null,\"priority\":\"LOW\",\"assignedTo\":{\"id\":" + other.getId()
+                + ",\"name\":\"Ignored\"}}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Original"))
+                .andExpect(jsonPath("$.description").doesNotExist())
+                .andExpect(jsonPath("$.priority").value("LOW"))
+                .andExpect(jsonPath("$.status").value("TODO"))
+                .andExpect(jsonPath("$.dueDate").value("2030-01-01"))
+                .andExpect(jsonPath("$.assignedTo.id").value(other.getId()))
+                .andExpect(jsonPath("$.project.id").value(project.getId()));
+        // The reference only picks the user; the user row is not patched through it
+        assertThat(userService.getUserById(other.getId()).getName()).isEqualTo("Other");
+
+        apply(task.getId(), "{\"project\":null,\"dueDate\":null}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.project").doesNotExist())
+                .andExpect(jsonPath("$.dueDate").doesNotExist())
+                .andExpect(jsonPath("$.assignedTo.id").value(other.getId()));
+
+        Task stored = taskService.getTaskById(task.getId());
+        assertThat(stored.getDescription()).isNull();
+        assertThat(stored.getProject()).isNull();
+        assertThat(stored.getTitle()).isEqualTo("Original");
+    }
+
+    @Test
+    void invalidPatchesChangeNothing() throws Exception {
+        Task task = taskService.createTask(Task.builder().title("Guarded").status(TaskStatus.TODO)
+                .priority(Priority.MEDIUM).build());
+
+        apply(task.getId(), "{\"title\":\"Renamed\",\"createdAt\":\"2020-01-01T00:00:00\"}")
+                .andExpect(status().isBadRequest());
+        apply(task.getId(), "{\"title\":null}").andExpect(status().isBadRequest());
+        apply(task.getId(), "{\"assignedTo\":{\"name\":\"No id\"}}").andExpect(status().isBadRequest());
+        apply(task.getId(), "[]").andExpect(status().isBadRequest());
+
+        Task stored = taskService.getTaskById(task.getId());
+        assertThat(stored.getTitle()).isEqualTo("Guarded");
+        assertThat(stored.getVersion()).isEqualTo(task.getVersion());
+    }
+
+    private ResultActions apply(Long id, String document) throws Exception {
+        return mockMvc.perform(patch("/api/tasks/" + id).contentType(MERGE_PATCH).content(document));
+    }
+}
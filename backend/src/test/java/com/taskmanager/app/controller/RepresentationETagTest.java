@@ -0,0 +1,112 @@
+package com.taskmanager.app.controller;
+
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.service.TaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * JSON, CBOR and Smile bodies of the same task carry different strong tags, each revalidates only its own
+ * format, and the response says it varies by Accept. The tag always names the format MVC actually writes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+class RepresentationETagTest {
+
+    private static final String[] FORMATS = {"application/json", "application/cbor", "application/x-jackson-smile"};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @Test
+    void strongTagsDifferByFormat() throws Exception {
+        Task task = taskService.createTask(Task.builder().title("Card").build());
+        String url = "/api/tasks/" + task.getId();
+
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (String format : FORMATS) {
+            String etag = mockMvc.perform(get(url).header(HttpHeaders.ACCEPT, format))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_TYPE, format))
+                    .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            tags.put(format, etag);
+        }
+        assertThat(tags.values()).doesNotHaveDuplicates().allMatch(etag -> etag.startsWith("\""));
+
+        for (String format : FORMATS) {
+            for (String tagFormat : FORMATS) {
+                mockMvc.perform(get(url).header(HttpHeaders.ACCEPT, format)
+                                .header(HttpHeaders.IF_NONE_MATCH, tags.get(tagFormat)))
+                        .andExpect(status().is(format.equals(tagFormat) ? 304 : 200));
+            }
+        }
+    }
+
+    @Test
+    void tagFollowsTheNegotiatedFormat() throws Exception {
+        Task task = taskService.createTask(Task.builder().title("Card").build());
+        String url = "/api/tasks/" + task.getId();
+
+        for (String accept : List.of("*/*", "application/*", "text/html, application/*;q=0.1",
+                "application/cbor, application/x-jackson-smile", "application/x-jackson-smile, application/cbor",
+                "application/cbor;q=0.5, application/x-jackson-smile;q=0.8", "application/*;q=0.5, application/cbor")) {
+            MockHttpServletResponse response = mockMvc.perform(get(url).header(HttpHeaders.ACCEPT, accept))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            String suffix = switch (response.getContentType()) {
+                case "application/cbor" -> "+cbor";
+                case "application/x-jackson-smile" -> "+smile";
+                default -> "";
+            };
+            assertThat(response.getHeader(HttpHeaders.ETAG)).as(accept)
+                    .matches("\"[0-9-]+" + Pattern.quote(suffix) + "\"");
+        }
+    }
+
+    @Test
+    void producibleFormatsFollowTheConverterOrder() {
+        List<MediaType> order = new ArrayList<>();
+        for (HttpMessageConverter<?> converter : handlerAdapter.getMessageConverters()) {
+            if (!converter.canWrite(Task.class, null)) {
+                continue;
+            }
+            for (MediaType type : converter.getSupportedMediaTypes(Task.class)) {
+                if (ETags.PRODUCIBLE.contains(type) && !order.contains(type)) {
+                    order.add(type);
+                }
+            }
+        }
+        assertThat(order).isEqualTo(ETags.PRODUCIBLE);
+    }
+}
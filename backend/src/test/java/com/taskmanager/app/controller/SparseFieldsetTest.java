@@ -0,0 +1,121 @@
+package com.taskmanager.app.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.User;
+import com.taskmanager.app.service.ProjectService;
+import com.taskmanager.app.service.TaskService;
+import com.taskmanager.app.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@code ?fields=} listings carry exactly the requested members, nested as in the full representation, with an
+ * absent association written as null; unknown fields are rejected.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+class SparseFieldsetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Test
+    void taskListingsCarryOnlyTheRequestedFields() throws Exception {
+        User owner = userService.createUser(User.builder().name("Sparse").email("sparse@example.com").build());
+        Project project = projectService.createProject(Project.builder().name("Sparse").createdBy(owner).build());
+        Task assigned = taskService.createTask(Task.builder().title("Assigned").description("Not listed")
+                .assignedTo(owner).project(project).build());
+        taskService.createTask(Task.builder().title("Unassigned").project(project).build());
+
+        JsonNode items = read("/api/tasks/project/" + project.getId() + "?fields=title,assignedTo.name").get("items");
+        assertThat(items).hasSize(2);
+        JsonNode withAssignee = item(items, "title", "Assigned");
+        assertThat(names(withAssignee)).containsExactly("title", "assignedTo");
+        assertThat(names(withAssignee.get("assignedTo"))).containsExactly("name");
+        assertThat(withAssignee.get("assignedTo").get("name").asText()).isEqualTo("Sparse");
+        assertThat(item(items, "title", "Unassigned").get("assignedTo").isNull()).isTrue();
+
+        // Naming an association selects all of its fields
+        JsonNode whole = read("/api/tasks/user/" + owner.getId() + "?fields=id,project").get("items");
+        assertThat(whole).hasSize(1);
+        assertThat(whole.get(0).get("id").asLong()).isEqualTo(assigned.getId());
+        assertThat(names(whole.get(0).get("project"))).containsExactly("id", "name");
+    }
+
+    @Test
+    void projectAndUserListingsCarryOnlyTheRequestedFields() throws Exception {
+        User owner = userService.createUser(User.builder().name("Lister").email("lister@example.com").build());
+        projectService.createProject(Project.builder().name("Listed").createdBy(owner).build());
+
+        JsonNode projects = read("/api/projects?fields=name,createdBy.email");
+        assertThat(projects).isNotEmpty();
+        for (JsonNode project : projects) {
+            assertThat(names(project)).containsExactly("name", "createdBy");
+            assertThat(names(project.get("createdBy"))).containsExactly("email");
+        }
+
+        JsonNode users = read("/api/users?fields=email");
+        assertThat(users).isNotEmpty();
+        for (JsonNode user : users) {
+            assertThat(names(user)).containsExactly("email");
+        }
+    }
+
+    @Test
+    void unknownFieldsAreRejected() throws Exception {
+        mockMvc.perform(get("/api/tasks?fields=title,secret")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/tasks?fields=assignedTo.password")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/projects?fields=tasks")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users?fields=,")).andExpect(status().isBadRequest());
+    }
+
+    private JsonNode read(String url) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static JsonNode item(JsonNode items, String field, String value) {
+        for (JsonNode item : items) {
+            if (item.get(field).asText().equals(value)) {
+                return item;
+            }
+        }
+        throw new AssertionError("No item with " + field + " " + value + " in " + items);
+    }
+
+    private static List<String> names(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
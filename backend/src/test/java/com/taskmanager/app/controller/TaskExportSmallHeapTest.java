@@ -0,0 +1,111 @@
+package com.taskmanager.app.controller;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports several times the heap. Runs in its own JVM with {@code -Xmx64m} (the {@code small-heap-tests}
+ * surefire execution, {@code ./gradlew smallHeapTest}); the tasks sit in a file database so only the
+ * export itself has to fit.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.hikari.maximum-pool-size=2"
+})
+@DirtiesContext
+class TaskExportSmallHeapTest {
+
+    private static final int TASKS = 100_000;
+    private static final String DESCRIPTION = "x".repeat(1800);
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void fileDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url",
+                () -> "jdbc:h2:file:" + dataDir.resolve("taskdb").toAbsolutePath() + ";CACHE_SIZE=4096");
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeAll
+    static void requireSmallHeap() {
+        assertThat(Runtime.getRuntime().maxMemory()).isLessThan(128L * 1024 * 1024);
+    }
+
+    @BeforeEach
+    void insertTasks(@Autowired JdbcTemplate jdbcTemplate) {
+        if (jdbcTemplate.queryForObject("select count(*) from tasks", Long.class) > 0) {
+            return;
+        }
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (long id = 1; id <= TASKS; id++) {
+            batch.add(new Object[]{id, "Task " + id, DESCRIPTION, "TODO", "MEDIUM", createdAt});
+            if (batch.size() == 1000 || id == TASKS) {
+                jdbcTemplate.batchUpdate("insert into tasks (id, title, description, status, priority, created_at, "
+                        + "version) values (?, ?, ?, ?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @Test
+    void exportsNdjsonLargerThanTheHeap() throws Exception {
+        assertStreamsPastHeap("ndjson", TASKS);
+    }
+
+    @Test
+    void exportsCsvLargerThanTheHeap() throws Exception {
+        assertStreamsPastHeap("csv", TASKS + 1);
+    }
+
+    private void assertStreamsPastHeap(String format, long expectedLines) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/tasks/export?format=" + format))
+                        .build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+
+        long bytes = 0;
+        long lines = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream body = response.body()) {
+            for (int read; (read = body.read(buffer)) > 0; ) {
+                bytes += read;
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        lines++;
+                    }
+                }
+            }
+        }
+        assertThat(lines).isEqualTo(expectedLines);
+        assertThat(bytes).isGreaterThan(2 * Runtime.getRuntime().maxMemory());
+    }
+}
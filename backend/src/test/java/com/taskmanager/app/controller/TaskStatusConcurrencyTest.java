@@ -0,0 +1,102 @@
+package com.taskmanager.app.controller;
+
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.dto.TaskStats;
+import com.taskmanager.app.service.TaskService;
+import com.taskmanager.app.service.TaskStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent moves of one task that all expect its current status: exactly one wins, the others get 409, and
+ * the row and the stats counters see the winner's move once.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:statusconcurrency;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class TaskStatusConcurrencyTest {
+
+    private static final int ROUNDS = 50;
+    private static final int CLIENTS = 16;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskStatsService taskStatsService;
+
+    @Test
+    void exactlyOneConcurrentMoveWins() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Task task = taskService.createTask(Task.builder().title("Card " + round).build());
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<HttpResponse<String>>> responses = new ArrayList<>();
+                for (int i = 0; i < CLIENTS; i++) {
+                    TaskStatus target = i % 2 == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.DONE;
+                    responses.add(clients.submit(() -> {
+                        start.await();
+                        return moveFromTodo(task.getId(), target);
+                    }));
+                }
+                start.countDown();
+
+                List<HttpResponse<String>> winners = new ArrayList<>();
+                for (Future<HttpResponse<String>> response : responses) {
+                    HttpResponse<String> result = response.get();
+                    if (result.statusCode() == 200) {
+                        winners.add(result);
+                    } else {
+                        assertThat(result.statusCode()).isEqualTo(409);
+                    }
+                }
+                assertThat(winners).hasSize(1);
+                Task stored = taskService.getTaskById(task.getId());
+                assertThat(stored.getVersion()).isEqualTo(1);
+                assertThat(winners.get(0).body()).contains("\"status\":\"" + stored.getStatus() + "\"");
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        TaskStats stats = taskStatsService.getStats();
+        assertThat(stats.byStatus().get(TaskStatus.TODO)).isZero();
+        assertThat(stats.byStatus().get(TaskStatus.IN_PROGRESS) + stats.byStatus().get(TaskStatus.DONE))
+                .isEqualTo(ROUNDS);
+    }
+
+    private HttpResponse<String> moveFromTodo(Long id, TaskStatus target) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/tasks/" + id + "/status"))
+                        .header("Content-Type", "application/json")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                                "{\"status\":\"" + target + "\",\"expectedStatus\":\"TODO\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
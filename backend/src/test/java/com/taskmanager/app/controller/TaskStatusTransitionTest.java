@@ -0,0 +1,112 @@
+package com.taskmanager.app.controller;
+
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.domain.User;
+import com.taskmanager.app.service.ProjectService;
+import com.taskmanager.app.service.TaskService;
+import com.taskmanager.app.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A finished task cannot go straight back to TODO through any endpoint: a full update is refused, and bulk
+ * updates leave such tasks alone and report them next to the ones they moved.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+class TaskStatusTransitionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Test
+    void fullUpdateCannotReopenToTodo() throws Exception {
+        Task task = task("Finished", TaskStatus.DONE, null);
+
+        mockMvc.perform(put("/api/tasks/" + task.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Finished\",\"status\":\"TODO\",\"priority\":\"MEDIUM\"}"))
+                .andExpect(status().isConflict());
+        assertThat(taskService.getTaskById(task.getId()).getStatus()).isEqualTo(TaskStatus.DONE);
+
+        mockMvc.perform(put("/api/tasks/" + task.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Reopened\",\"status\":\"IN_PROGRESS\",\"priority\":\"MEDIUM\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("IN_PROGRESS"));
+    }
+
+    @Test
+    void bulkUpdateByIdsSkipsTasksThatCannotMove() throws Exception {
+        Task open = task("Open", TaskStatus.IN_PROGRESS, null);
+        Task done = task("Done", TaskStatus.DONE, null);
+
+        mockMvc.perform(patch("/api/tasks/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + open.getId() + "," + done.getId() + "],\"status\":\"TODO\"}"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.rejected", hasSize(1)))
+                .andExpect(jsonPath("$.rejected[0].id").value(done.getId()))
+                .andExpect(jsonPath("$.rejected[0].error").isNotEmpty());
+
+        assertThat(taskService.getTaskById(open.getId()).getStatus()).isEqualTo(TaskStatus.TODO);
+        assertThat(taskService.getTaskById(done.getId()).getStatus()).isEqualTo(TaskStatus.DONE);
+    }
+
+    @Test
+    void bulkUpdateByFilterSkipsTasksThatCannotMove() throws Exception {
+        User owner = userService.createUser(User.builder().name("Owner").email("owner@example.com").build());
+        Project project = projectService.createProject(Project.builder().name("Board").createdBy(owner).build());
+        Task open = task("Open", TaskStatus.IN_PROGRESS, project);
+        Task done = task("Done", TaskStatus.DONE, project);
+
+        mockMvc.perform(patch("/api/tasks/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\":{\"projectId\":" + project.getId() + "},\"status\":\"TODO\"}"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.rejected[*].id", contains(done.getId().intValue())));
+        assertThat(taskService.getTaskById(open.getId()).getStatus()).isEqualTo(TaskStatus.TODO);
+        assertThat(taskService.getTaskById(done.getId()).getStatus()).isEqualTo(TaskStatus.DONE);
+
+        // Allowed for every targeted task: a plain 200 with nothing rejected
+        mockMvc.perform(patch("/api/tasks/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\":{\"projectId\":" + project.getId() + "},\"status\":\"IN_PROGRESS\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.rejected", hasSize(0)));
+    }
+
+    private Task task(String title, TaskStatus status, Project project) {
+        return taskService.createTask(Task.builder().title(title).status(status).project(project).build());
+    }
+}
@@ -0,0 +1,169 @@
+package com.taskmanager.app.repository;
+
+import com.taskmanager.app.config.SecondLevelCacheConfig;
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.domain.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every task, project and user finder reads its table through an index: the SQL each one issues is run
+ * through EXPLAIN and the plan must not contain a table scan. Joins to users and projects by primary key
+ * are index lookups too, so a scan anywhere in the plan fails the test.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({SecondLevelCacheConfig.class, TaskFinderIndexTest.RecordingConfig.class})
+class TaskFinderIndexTest {
+
+    private static final TaskCursor CREATED_AT_CURSOR =
+            new TaskCursor(TaskSort.CREATED_AT, LocalDateTime.now(), null, null, 10L);
+
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        List<String> recordedSql() {
+            return new ArrayList<>();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer recordingInspector(List<String> recordedSql) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                recordedSql.add(sql);
+                return sql;
+            });
+        }
+    }
+
+    record Finder(String name, Consumer<Repositories> call) {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    record Repositories(TaskRepository tasks, ProjectRepository projects, UserRepository users) {
+    }
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private List<String> recordedSql;
+
+    @BeforeEach
+    void insertRows() {
+        User user = User.builder().name("User").email("user@example.com").build();
+        entityManager.persist(user);
+        Project project = Project.builder().name("Project").createdBy(user).build();
+        entityManager.persist(project);
+        for (int i = 0; i < 20; i++) {
+            entityManager.persist(Task.builder().title("Task " + i)
+                    .status(TaskStatus.values()[i % TaskStatus.values().length])
+                    .priority(Priority.values()[i % Priority.values().length])
+                    .dueDate(LocalDate.now().plusDays(i))
+                    .assignedTo(user).project(project).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    static Stream<Arguments> finders() {
+        return Stream.of(
+                finder("findByStatus", r -> r.tasks().findByStatus(TaskStatus.TODO)),
+                finder("findByPriority", r -> r.tasks().findByPriority(Priority.HIGH)),
+                finder("findByAssignedToId", r -> r.tasks().findByAssignedToId(1L)),
+                finder("findByProjectId", r -> r.tasks().findByProjectId(1L)),
+                finder("findByStatusAndPriority", r -> r.tasks().findByStatusAndPriority(TaskStatus.TODO, Priority.HIGH)),
+                finder("findPage by status", r -> r.tasks().findPage(
+                        TaskFilter.builder().status(TaskStatus.TODO).build(), TaskSort.CREATED_AT, null, 50)),
+                finder("findPage by priority", r -> r.tasks().findPage(
+                        TaskFilter.builder().priority(Priority.HIGH).build(), TaskSort.CREATED_AT, null, 50)),
+                finder("findPage by assignee", r -> r.tasks().findPage(
+                        TaskFilter.builder().assignedToId(1L).build(), TaskSort.CREATED_AT, null, 50)),
+                finder("findPage by project", r -> r.tasks().findPage(
+                        TaskFilter.builder().projectId(1L).build(), TaskSort.DUE_DATE, null, 50)),
+                finder("findPage after cursor", r -> r.tasks().findPage(
+                        TaskFilter.none(), TaskSort.CREATED_AT, CREATED_AT_CURSOR, 50)),
+                finder("findViewsByIds", r -> r.tasks().findViewsByIds(List.of(1L, 2L))),
+                finder("lockSnapshots", r -> r.tasks().lockSnapshots(TaskFilter.builder().status(TaskStatus.TODO).build())),
+                finder("lockSnapshotsByProjectId", r -> r.tasks().lockSnapshotsByProjectId(1L, Limit.of(10))),
+                finder("lockSnapshotsByAssigneeId", r -> r.tasks().lockSnapshotsByAssigneeId(1L, Limit.of(10))),
+                finder("countByProjectId", r -> r.tasks().countByProjectId(1L)),
+                finder("countByAssigneeId", r -> r.tasks().countByAssigneeId(1L)),
+                finder("findByCreatedById", r -> r.projects().findByCreatedById(1L)),
+                finder("findIdsByCreator", r -> r.projects().findIdsByCreator(1L, 10)),
+                finder("findByEmail", r -> r.users().findByEmail("user@example.com")),
+                finder("existsByEmailIncludingDeleted", r -> r.users().existsByEmailIncludingDeleted("user@example.com")));
+    }
+
+    private static Arguments finder(String name, Consumer<Repositories> call) {
+        return Arguments.of(new Finder(name, call));
+    }
+
+    @ParameterizedTest
+    @MethodSource("finders")
+    void finderUsesAnIndex(Finder finder) {
+        recordedSql.clear();
+        finder.call().accept(new Repositories(taskRepository, projectRepository, userRepository));
+
+        List<String> queries = recordedSql.stream()
+                .filter(sql -> sql.stripLeading().toLowerCase().startsWith("select"))
+                .toList();
+        assertThat(queries).as("statements of %s", finder).isNotEmpty();
+        for (String sql : queries) {
+            assertThat(explain(sql)).as("plan of %s", finder).doesNotContain("tableScan");
+        }
+    }
+
+    // Parameters are left null: H2 picks the plan when the statement is prepared, not from the values
+    private String explain(String sql) {
+        int parameters = (int) sql.chars().filter(c -> c == '?').count();
+        return String.join("\n", jdbcTemplate.query("explain " + sql,
+                statement -> {
+                    for (int i = 1; i <= parameters; i++) {
+                        statement.setObject(i, null);
+                    }
+                },
+                (row, rowNum) -> row.getString(1)));
+    }
+}
@@ -0,0 +1,144 @@
+package com.taskmanager.app.service;
+
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.User;
+import com.taskmanager.app.dto.DeletionJob;
+import com.taskmanager.app.event.EntityType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Deletion jobs work through their rows in chunks, take up rows left marked by a job that was cut short,
+ * and run once however many requests ask for the same deletion.
+ */
+@SpringBootTest(properties = {
+        "taskmanager.deletion.chunk-size=2",
+        "taskmanager.deletion.throttle=50ms"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class CascadeDeletionServiceTest {
+
+    private static final int TASKS = 7;
+
+    @Autowired
+    private CascadeDeletionService cascadeDeletionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    void deletesProjectTasksInChunks() throws Exception {
+        Project project = projectWithTasks("chunks@example.com");
+
+        DeletionJob queued = cascadeDeletionService.deleteProject(project.getId());
+        assertThat(queued.status()).isEqualTo(DeletionJob.Status.RUNNING);
+        assertThat(queued.totalTasks()).isEqualTo(TASKS);
+
+        DeletionJob job = awaitJob(EntityType.PROJECT, project.getId());
+        assertThat(job.status()).isEqualTo(DeletionJob.Status.COMPLETED);
+        assertThat(job.tasksDone()).isEqualTo(TASKS);
+        assertThat(taskService.countTasksOfProject(project.getId())).isZero();
+        assertThat(projectService.getMarkedDeletedProjectIds()).doesNotContain(project.getId());
+    }
+
+    @Test
+    void resumesRowsLeftMarked() throws Exception {
+        Project project = projectWithTasks("resumed@example.com");
+        User user = project.getCreatedBy();
+        // As left behind by a shutdown right after the delete requests
+        projectService.markProjectDeleted(project.getId());
+        userService.markUserDeleted(user.getId());
+
+        cascadeDeletionService.resumeMarked();
+
+        assertThat(awaitJob(EntityType.PROJECT, project.getId()).status()).isEqualTo(DeletionJob.Status.COMPLETED);
+        assertThat(awaitJob(EntityType.USER, user.getId()).status()).isEqualTo(DeletionJob.Status.COMPLETED);
+        assertThat(taskService.countTasksOfProject(project.getId())).isZero();
+        assertThat(projectService.getMarkedDeletedProjectIds()).doesNotContain(project.getId());
+        assertThat(userService.getMarkedDeletedUserIds()).doesNotContain(user.getId());
+    }
+
+    @Test
+    void concurrentRequestsShareOneJob() throws Exception {
+        Project project = projectWithTasks("concurrent@example.com");
+        int requests = 8;
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<DeletionJob>> jobs = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                jobs.add(callers.submit(() -> {
+                    go.await();
+                    return cascadeDeletionService.deleteProject(project.getId());
+                }));
+            }
+            go.countDown();
+            for (Future<DeletionJob> job : jobs) {
+                // A second marking would fail, the row being hidden once marked
+                assertThat(job.get(30, TimeUnit.SECONDS).totalTasks()).isEqualTo(TASKS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        DeletionJob job = awaitJob(EntityType.PROJECT, project.getId());
+        assertThat(job.status()).isEqualTo(DeletionJob.Status.COMPLETED);
+        assertThat(job.tasksDone()).isEqualTo(TASKS);
+    }
+
+    @Test
+    void emailStaysTakenUntilTheUserIsGone() throws Exception {
+        User user = userService.createUser(User.builder().name("Leaving").email("leaving@example.com").build());
+
+        cascadeDeletionService.deleteUser(user.getId());
+        assertThatThrownBy(() -> userService.createUser(
+                User.builder().name("Early").email("leaving@example.com").build()))
+                .isInstanceOf(ResponseStatusException.class);
+
+        assertThat(awaitJob(EntityType.USER, user.getId()).status()).isEqualTo(DeletionJob.Status.COMPLETED);
+        User next = userService.createUser(User.builder().name("Next").email("leaving@example.com").build());
+        assertThat(next.getId()).isNotEqualTo(user.getId());
+    }
+
+    private Project projectWithTasks(String email) {
+        User owner = userService.createUser(User.builder().name("Owner").email(email).build());
+        Project project = projectService.createProject(Project.builder().name("Doomed").createdBy(owner).build());
+        for (int i = 0; i < TASKS; i++) {
+            taskService.createTask(Task.builder().title("Task " + i).project(project).assignedTo(owner).build());
+        }
+        return project;
+    }
+
+    private DeletionJob awaitJob(EntityType type, Long id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        DeletionJob job = cascadeDeletionService.getJob(type, id);
+        while (job.status() == DeletionJob.Status.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            job = cascadeDeletionService.getJob(type, id);
+        }
+        return job;
+    }
+}
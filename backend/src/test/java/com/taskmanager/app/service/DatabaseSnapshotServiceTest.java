@@ -0,0 +1,215 @@
+package com.taskmanager.app.service;
+
+import com.taskmanager.app.TaskManagerApplication;
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.domain.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Restarts against a persistence directory: the newest snapshot is loaded and the change log replayed on top,
+ * up to a torn last record; and a change that could not be logged survives through the repair snapshot.
+ * Every start uses a fresh in-memory database, as a restarted process would.
+ */
+class DatabaseSnapshotServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restoresSnapshotAndReplaysTheLogUpToATornRecord() throws Exception {
+        Long userId;
+        Long projectId;
+        Task edited;
+        Task deleted;
+        Task lost;
+        Task created;
+        try (ConfigurableApplicationContext context = start(dir, "written", null)) {
+            TaskService taskService = context.getBean(TaskService.class);
+            User user = context.getBean(UserService.class).createUser(
+                    User.builder().name("Kept").email("kept@example.com").build());
+            Project project = context.getBean(ProjectService.class).createProject(
+                    Project.builder().name("Kept").createdBy(user).build());
+            userId = user.getId();
+            projectId = project.getId();
+            edited = taskService.createTask(task("Before snapshot", project));
+            deleted = taskService.createTask(task("Deleted after snapshot", project));
+            lost = taskService.createTask(task("Kept by the torn log", project));
+            context.getBean(DatabaseSnapshotService.class).writeSnapshot();
+
+            // Only in the log from here on
+            taskService.updateTask(edited.getId(), task("After snapshot", project));
+            taskService.deleteTask(deleted.getId());
+            created = taskService.createTask(task("Created after snapshot", project));
+            taskService.updateTask(lost.getId(), task("Lost with the torn record", project));
+        }
+        // The shutdown snapshot already has everything; without it the log has to be replayed
+        List<Path> snapshots = files(dir, "snapshot-");
+        Files.delete(snapshots.get(snapshots.size() - 1));
+        Path torn = Files.createDirectory(dir.resolveSibling(dir.getFileName() + "-torn"));
+        for (Path file : files(dir, "")) {
+            Files.copy(file, torn.resolve(file.getFileName()));
+        }
+        List<Path> segments = files(torn, "changes-");
+        Path written = segments.stream().filter(segment -> size(segment) > 0).reduce((first, second) -> second)
+                .orElseThrow();
+        try (FileChannel channel = FileChannel.open(written, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (ConfigurableApplicationContext context = start(dir, "replayed", null)) {
+            TaskService taskService = context.getBean(TaskService.class);
+            assertThat(context.getBean(UserService.class).getUserById(userId).getEmail()).isEqualTo("kept@example.com");
+            assertThat(context.getBean(ProjectService.class).getProjectById(projectId).getName()).isEqualTo("Kept");
+            assertThat(taskService.getTaskById(edited.getId()).getTitle()).isEqualTo("After snapshot");
+            assertThatThrownBy(() -> taskService.getTaskById(deleted.getId())).hasMessageContaining("not found");
+            assertThat(taskService.getTaskById(created.getId()).getTitle()).isEqualTo("Created after snapshot");
+            assertThat(taskService.getTaskById(lost.getId()).getTitle()).isEqualTo("Lost with the torn record");
+            // Ids continue after the highest ever used, the deleted task's included
+            assertThat(taskService.createTask(task("Next", null)).getId()).isGreaterThan(created.getId());
+        }
+        try (ConfigurableApplicationContext context = start(torn, "torn", null)) {
+            TaskService taskService = context.getBean(TaskService.class);
+            assertThat(taskService.getTaskById(edited.getId()).getTitle()).isEqualTo("After snapshot");
+            assertThatThrownBy(() -> taskService.getTaskById(deleted.getId())).hasMessageContaining("not found");
+            assertThat(taskService.getTaskById(created.getId()).getTitle()).isEqualTo("Created after snapshot");
+            assertThat(taskService.getTaskById(lost.getId()).getTitle()).isEqualTo("Kept by the torn log");
+        }
+    }
+
+    @Test
+    void refusesWritesUntilARepairSnapshotCoversAnUnloggedChange() throws Exception {
+        AtomicBoolean failLogRead = new AtomicBoolean();
+        AtomicInteger failRepairs = new AtomicInteger();
+        Task task;
+        BeanPostProcessor failing = failingConnections(failLogRead, failRepairs);
+        try (ConfigurableApplicationContext context = start(dir, "broken", failing)) {
+            TaskService taskService = context.getBean(TaskService.class);
+            task = taskService.createTask(task("Logged", null));
+
+            new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+                taskService.updateTask(task.getId(), task("Only in the repair snapshot", null));
+                // The next connection is the one reading the committed row for the log; the first repair fails too
+                failLogRead.set(true);
+                failRepairs.set(1);
+            });
+            assertThat(failLogRead).isFalse();
+
+            assertThatThrownBy(() -> taskService.createTask(task("Refused", null)))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+            Task accepted = awaitAccepted(taskService);
+            assertThat(failRepairs).hasValue(0);
+            assertThat(accepted.getTitle()).isEqualTo("Accepted");
+        }
+        // Drop the shutdown snapshot, so only the repair snapshot can have the unlogged change
+        List<Path> snapshots = files(dir, "snapshot-");
+        Files.delete(snapshots.get(snapshots.size() - 1));
+
+        try (ConfigurableApplicationContext context = start(dir, "repaired", null)) {
+            assertThat(context.getBean(TaskService.class).getTaskById(task.getId()).getTitle())
+                    .isEqualTo("Only in the repair snapshot");
+        }
+    }
+
+    private static Task awaitAccepted(TaskService taskService) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (true) {
+            try {
+                return taskService.createTask(task("Accepted", null));
+            } catch (ResponseStatusException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Path dir, String database, BeanPostProcessor dataSource) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(TaskManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test");
+        if (dataSource != null) {
+            builder.initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(dataSource));
+        }
+        return builder.run("--taskmanager.persistence.enabled=true",
+                "--taskmanager.persistence.dir=" + dir,
+                "--taskmanager.persistence.snapshot-interval=PT1H",
+                "--spring.datasource.url=jdbc:h2:mem:snapshot-" + database + ";DB_CLOSE_DELAY=-1");
+    }
+
+    /**
+     * Fails the next connection once {@code failNext} is set, and as many connections of the repair thread as
+     * {@code failRepairs} says.
+     */
+    private static BeanPostProcessor failingConnections(AtomicBoolean failNext, AtomicInteger failRepairs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || !beanName.equals("dataSource")) {
+                    return bean;
+                }
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        boolean repair = Thread.currentThread().getName().equals("snapshot-repair");
+                        if (failNext.compareAndSet(true, false)
+                                || repair && failRepairs.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                            throw new SQLException("Connection refused for the test");
+                        }
+                        return super.getConnection();
+                    }
+                };
+            }
+        };
+    }
+
+    private static Task task(String title, Project project) {
+        return Task.builder().title(title).status(TaskStatus.TODO).priority(Priority.MEDIUM).project(project).build();
+    }
+
+    private static List<Path> files(Path dir, String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
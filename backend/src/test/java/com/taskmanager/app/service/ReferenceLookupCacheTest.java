@@ -0,0 +1,72 @@
+package com.taskmanager.app.service;
+
+import com.taskmanager.app.domain.Project;
+import com.taskmanager.app.domain.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Once looked up, users (by id or email) and projects (by id) come from the second-level cache without a
+ * statement, until they change.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class ReferenceLookupCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Test
+    void repeatedLookupsRunNoStatements() {
+        User user = userService.createUser(User.builder().name("Cached").email("cached@example.com").build());
+        Project project = projectService.createProject(Project.builder().name("Cached").createdBy(user).build());
+        lookUp(user, project);
+
+        Statistics statistics = statistics();
+        statistics.clear();
+        for (int i = 0; i < 3; i++) {
+            lookUp(user, project);
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(3);
+    }
+
+    @Test
+    void emailLookupFollowsEmailChanges() {
+        User user = userService.createUser(User.builder().name("Moving").email("old@example.com").build());
+        userService.getUserByEmail("old@example.com");
+
+        userService.updateUser(user.getId(), User.builder().name("Moving").email("new@example.com").build());
+
+        assertThatThrownBy(() -> userService.getUserByEmail("old@example.com"))
+                .hasMessageContaining("old@example.com");
+        assertThat(userService.getUserByEmail("new@example.com").getId()).isEqualTo(user.getId());
+    }
+
+    private void lookUp(User user, Project project) {
+        assertThat(userService.getUserById(user.getId()).getEmail()).isEqualTo(user.getEmail());
+        assertThat(userService.getUserByEmail(user.getEmail()).getId()).isEqualTo(user.getId());
+        assertThat(projectService.getProjectById(project.getId()).getName()).isEqualTo(project.getName());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
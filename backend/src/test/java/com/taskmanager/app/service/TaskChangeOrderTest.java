@@ -0,0 +1,77 @@
+package com.taskmanager.app.service;
+
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.event.TaskSnapshot;
+import com.taskmanager.app.repository.TaskFilter;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The in-memory task indexes end up with the latest committed image of a task whatever order its changes
+ * arrive in: an older image is ignored, and a deleted task is not brought back by an update that arrives late.
+ */
+class TaskChangeOrderTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2026, 3, 2);
+    private static final LocalDate FRIDAY = LocalDate.of(2026, 3, 6);
+
+    @Test
+    void searchIndexKeepsTheLatestVersion() {
+        TaskSearchIndex index = new TaskSearchIndex();
+        assertThat(index.index(task(1, "Draft", 0))).isTrue();
+
+        assertThat(index.index(task(1, "Final", 2))).isTrue();
+        assertThat(index.index(task(1, "Revised", 1))).isFalse();
+
+        assertThat(index.search("final", TaskFilter.none(), null, null, 10)).hasSize(1);
+        assertThat(index.search("revised", TaskFilter.none(), null, null, 10)).isEmpty();
+    }
+
+    @Test
+    void searchIndexDoesNotResurrectDeletedTasks() {
+        TaskSearchIndex index = new TaskSearchIndex();
+        index.index(task(1, "Draft", 0));
+
+        index.remove(1);
+        assertThat(index.index(task(1, "Revised", 1))).isFalse();
+
+        assertThat(index.size()).isZero();
+        assertThat(index.search("revised", TaskFilter.none(), null, null, 10)).isEmpty();
+    }
+
+    @Test
+    void dueDateIndexKeepsTheLatestVersion() {
+        TaskDueDateIndex index = new TaskDueDateIndex();
+        index.update(1, 0, MONDAY);
+
+        assertThat(index.update(1, 2, FRIDAY)).isTrue();
+        assertThat(index.update(1, 1, MONDAY)).isFalse();
+
+        assertThat(index.dueOn(MONDAY)).isEmpty();
+        assertThat(index.dueOn(FRIDAY)).containsExactly(1L);
+    }
+
+    @Test
+    void dueDateIndexRemembersTasksThatLeftIt() {
+        TaskDueDateIndex index = new TaskDueDateIndex();
+        index.update(1, 0, MONDAY);
+        index.update(2, 0, MONDAY);
+
+        // Task 1 finished (no longer tracked) before a late due-date change; task 2 deleted likewise
+        assertThat(index.update(1, 2, null)).isTrue();
+        assertThat(index.update(1, 1, FRIDAY)).isFalse();
+        assertThat(index.update(2, TaskDueDateIndex.DELETED, null)).isTrue();
+        assertThat(index.update(2, 1, FRIDAY)).isFalse();
+
+        assertThat(index.size()).isZero();
+        assertThat(index.dueBefore(FRIDAY.plusDays(1), null, 0, 10)).isEmpty();
+    }
+
+    private static TaskSnapshot task(long id, String title, long version) {
+        return new TaskSnapshot(id, title, null, TaskStatus.TODO, Priority.MEDIUM, null, null, null, version);
+    }
+}
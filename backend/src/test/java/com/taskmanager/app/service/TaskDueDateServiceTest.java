@@ -0,0 +1,119 @@
+package com.taskmanager.app.service;
+
+import com.taskmanager.app.domain.Priority;
+import com.taskmanager.app.domain.Task;
+import com.taskmanager.app.domain.TaskStatus;
+import com.taskmanager.app.dto.CursorPage;
+import com.taskmanager.app.dto.TaskView;
+import com.taskmanager.app.event.ChangeType;
+import com.taskmanager.app.event.TaskDueEvent;
+import com.taskmanager.app.repository.TaskCursor;
+import com.taskmanager.app.repository.TaskSort;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Open tasks past their due date are listed as overdue, in due date order, and a write that moves a task into
+ * the due-soon window or past its date announces it once; finishing a task takes it off the list.
+ */
+@SpringBootTest(properties = "taskmanager.due-dates.due-soon-days=2")
+@ActiveProfiles("test")
+@RecordApplicationEvents
+@DirtiesContext
+class TaskDueDateServiceTest {
+
+    @Autowired
+    private TaskDueDateService taskDueDateService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void writesAnnounceTasksThatBecomeDueSoonOrOverdue() {
+        LocalDate today = LocalDate.now();
+        Task late = create("Late", today.minusDays(1));
+        Task soon = create("Soon", today.plusDays(2));
+        Task later = create("Later", today.plusDays(3));
+        create("Undated", null);
+
+        assertThat(notices()).containsExactly(
+                new Notice(late.getId(), ChangeType.OVERDUE),
+                new Notice(soon.getId(), ChangeType.DUE_SOON));
+
+        // Still overdue after an edit, so not announced again; moving the other one in is
+        events.clear();
+        taskService.updateTask(late.getId(), task("Late, renamed", today.minusDays(2)));
+        taskService.updateTask(later.getId(), task("Later", today.minusDays(1)));
+        assertThat(notices()).containsExactly(new Notice(later.getId(), ChangeType.OVERDUE));
+
+        // Done tasks are never due
+        Task finished = create("Finished", today.minusDays(1));
+        taskService.updateTaskStatus(finished.getId(), TaskStatus.DONE);
+        assertThat(overdueIds()).doesNotContain(finished.getId());
+    }
+
+    @Test
+    void overdueListingPagesInDueDateOrder() {
+        LocalDate today = LocalDate.now();
+        Task oldest = create("Oldest", today.minusDays(10));
+        Task yesterday = create("Yesterday", today.minusDays(1));
+        Task middle = create("Middle", today.minusDays(5));
+        Task dueToday = create("Today", today);
+        Task done = create("Done", today.minusDays(7));
+
+        assertThat(overdueIds()).containsSubsequence(oldest.getId(), middle.getId(), yesterday.getId())
+                .doesNotContain(dueToday.getId());
+
+        taskService.updateTaskStatus(done.getId(), TaskStatus.DONE);
+        taskService.deleteTask(middle.getId());
+        assertThat(overdueIds()).containsSubsequence(oldest.getId(), yesterday.getId())
+                .doesNotContain(done.getId(), middle.getId());
+    }
+
+    private record Notice(Long taskId, ChangeType change) {
+    }
+
+    private List<Notice> notices() {
+        return events.stream(TaskDueEvent.class)
+                .map(event -> new Notice(event.task().id(), event.change()))
+                .toList();
+    }
+
+    /**
+     * The whole overdue listing, read one item per page.
+     */
+    private List<Long> overdueIds() {
+        List<Long> ids = new ArrayList<>();
+        TaskCursor cursor = null;
+        do {
+            CursorPage<TaskView> page = taskDueDateService.getOverdueTasks(cursor, 1);
+            page.items().forEach(view -> ids.add(view.id()));
+            cursor = page.nextCursor() == null ? null : TaskCursor.decode(page.nextCursor(), TaskSort.DUE_DATE);
+        } while (cursor != null);
+        assertThat(Set.copyOf(ids)).hasSameSizeAs(ids);
+        return ids;
+    }
+
+    private Task create(String title, LocalDate dueDate) {
+        return taskService.createTask(task(title, dueDate));
+    }
+
+    private static Task task(String title, LocalDate dueDate) {
+        return Task.builder().title(title).status(TaskStatus.TODO).priority(Priority.MEDIUM).dueDate(dueDate).build();
+    }
+}
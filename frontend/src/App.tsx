@@ -1,13 +1,42 @@
-import { useState, useEffect } from 'react';
-import type { Task, User, Project } from './types';
+import { useState, useEffect, useRef } from 'react';
+import axios from 'axios';
+import type { Task, User, Project, TaskStats, ChangeNotice, ChangeType, DueChange, TaskPageQuery } from './types';
 import { TaskStatus, Priority } from './types';
-import { taskApi, userApi, projectApi } from './services/api';
+import { taskApi, userApi, projectApi, changeApi } from './services/api';
 import './App.css';
 
+const PAGE_SIZE = 50;
+
+// Marks from DUE_SOON / OVERDUE notices, with the due date they were raised for
+interface DueMark {
+  change: DueChange;
+  dueDate: string | null;
+}
+
+const isDueChange = (change: ChangeType): change is DueChange => change === 'DUE_SOON' || change === 'OVERDUE';
+
+// A due notice marks the card; a later change that completes the task, moves its due date or deletes it clears
+// the mark. Both kinds of notice may arrive in either order after the same write, hence the date comparison.
+const updateDueMarks = (marks: Record<number, DueMark>, notice: ChangeNotice): Record<number, DueMark> => {
+  const snapshot = notice.task;
+  if (isDueChange(notice.change) && snapshot) {
+    return { ...marks, [notice.id]: { change: notice.change, dueDate: snapshot.dueDate } };
+  }
+  const mark = marks[notice.id];
+  if (!mark || (snapshot && snapshot.status !== TaskStatus.DONE && snapshot.dueDate === mark.dueDate)) return marks;
+  const next = { ...marks };
+  delete next[notice.id];
+  return next;
+};
+
 function App() {
   const [tasks, setTasks] = useState<Task[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [users, setUsers] = useState<User[]>([]);
   const [projects, setProjects] = useState<Project[]>([]);
+  const [taskStats, setTaskStats] = useState<TaskStats | null>(null);
+  const [dueMarks, setDueMarks] = useState<Record<number, DueMark>>({});
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
   const [showTaskForm, setShowTaskForm] = useState(false);
@@ -24,19 +53,110 @@ function App() {
   const [filterStatus, setFilterStatus] = useState<TaskStatus | ''>('');
   const [filterPriority, setFilterPriority] = useState<Priority | ''>('');
 
+  const usersRef = useRef<User[]>([]);
+  const projectsRef = useRef<Project[]>([]);
+  const filterRef = useRef({ status: filterStatus, priority: filterPriority });
+  const nextCursorRef = useRef<string | null>(null);
+  const loadingMoreRef = useRef(false);
+  // Bumped whenever the board is reloaded, so pages requested for an earlier filter are dropped
+  const taskQueryId = useRef(0);
+  const sentinelRef = useRef<HTMLDivElement>(null);
+  const statsTimer = useRef<number | undefined>(undefined);
+  usersRef.current = users;
+  projectsRef.current = projects;
+  filterRef.current = { status: filterStatus, priority: filterPriority };
+  nextCursorRef.current = nextCursor;
+
   useEffect(() => {
     loadData();
+    return changeApi.subscribe(applyChange, () => {
+      loadData();
+      loadTasks();
+    });
   }, []);
 
+  // The board holds only the pages loaded so far, filtered by the server
+  useEffect(() => {
+    loadTasks();
+  }, [filterStatus, filterPriority]);
+
+  // Fetches the next page once the end of the list scrolls into view
+  useEffect(() => {
+    const sentinel = sentinelRef.current;
+    if (!sentinel || !nextCursor) return;
+    const observer = new IntersectionObserver(entries => {
+      if (entries[0].isIntersecting) loadMoreTasks();
+    }, { rootMargin: '200px' });
+    observer.observe(sentinel);
+    return () => observer.disconnect();
+  }, [nextCursor, loading]);
+
+  // Applies one pushed change instead of reloading every list
+  const applyChange = (notice: ChangeNotice) => {
+    if (notice.type === 'TASK') {
+      setDueMarks(prev => updateDueMarks(prev, notice));
+      // Bulk operations arrive as bursts, so refresh the counters once per burst
+      window.clearTimeout(statsTimer.current);
+      statsTimer.current = window.setTimeout(() => taskApi.getStats().then(res => setTaskStats(res.data)), 250);
+      // The task itself did not change, only its place relative to today
+      if (isDueChange(notice.change)) return;
+      const snapshot = notice.task;
+      const { status, priority } = filterRef.current;
+      const matches = !!snapshot && (!status || snapshot.status === status) && (!priority || snapshot.priority === priority);
+      setTasks(prev => {
+        const current = prev.find(t => t.id === notice.id);
+        if (!snapshot || !matches) return current ? prev.filter(t => t.id !== notice.id) : prev;
+        const task: Task = {
+          ...current,
+          id: snapshot.id,
+          title: snapshot.title,
+          description: snapshot.description ?? undefined,
+          status: snapshot.status,
+          priority: snapshot.priority,
+          dueDate: snapshot.dueDate ?? undefined,
+          assignedTo: usersRef.current.find(u => u.id === snapshot.assignedToId),
+          project: projectsRef.current.find(p => p.id === snapshot.projectId),
+        };
+        if (current) return prev.map(t => (t.id === notice.id ? task : t));
+        // The board is in creation order, so a new task goes after the loaded pages: shown here once they
+        // reach the end, otherwise it arrives with a later page
+        return nextCursorRef.current ? prev : [...prev, task];
+      });
+    } else if (notice.type === 'USER') {
+      if (notice.change === 'DELETED') {
+        setUsers(prev => prev.filter(u => u.id !== notice.id));
+      } else {
+        userApi.getById(notice.id)
+          .then(res => setUsers(prev => [...prev.filter(u => u.id !== notice.id), res.data]))
+          .catch(err => {
+            // Usually deleted between the notice and the fetch; otherwise the next reload brings it back
+            console.error(err);
+            setUsers(prev => prev.filter(u => u.id !== notice.id));
+          });
+      }
+    } else {
+      if (notice.change === 'DELETED') {
+        setProjects(prev => prev.filter(p => p.id !== notice.id));
+      } else {
+        projectApi.getById(notice.id)
+          .then(res => setProjects(prev => [...prev.filter(p => p.id !== notice.id), res.data]))
+          .catch(err => {
+            console.error(err);
+            setProjects(prev => prev.filter(p => p.id !== notice.id));
+          });
+      }
+    }
+  };
+
   const loadData = async () => {
     try {
       setLoading(true);
-      const [tasksRes, usersRes, projectsRes] = await Promise.all([
-        taskApi.getAll(),
+      const [statsRes, usersRes, projectsRes] = await Promise.all([
+        taskApi.getStats(),
         userApi.getAll(),
         projectApi.getAll(),
       ]);
-      setTasks(tasksRes.data);
+      setTaskStats(statsRes.data);
       setUsers(usersRes.data);
       setProjects(projectsRes.data);
       setError(null);
@@ -48,13 +168,52 @@ function App() {
     }
   };
 
+  const taskQuery = (): TaskPageQuery => ({
+    status: filterRef.current.status || undefined,
+    priority: filterRef.current.priority || undefined,
+    limit: PAGE_SIZE,
+  });
+
+  // First page for the current filters
+  const loadTasks = async () => {
+    const queryId = ++taskQueryId.current;
+    try {
+      const res = await taskApi.getPage(taskQuery());
+      if (queryId !== taskQueryId.current) return;
+      setTasks(res.data.items);
+      setNextCursor(res.data.nextCursor);
+    } catch (err) {
+      setError('Failed to load tasks. Make sure the backend is running on port 8080.');
+      console.error(err);
+    }
+  };
+
+  const loadMoreTasks = async () => {
+    const after = nextCursorRef.current;
+    if (!after || loadingMoreRef.current) return;
+    const queryId = taskQueryId.current;
+    loadingMoreRef.current = true;
+    setLoadingMore(true);
+    try {
+      const res = await taskApi.getPage({ ...taskQuery(), after });
+      if (queryId !== taskQueryId.current) return;
+      // A task pushed by the change feed may already be on the board
+      setTasks(prev => [...prev, ...res.data.items.filter(t => !prev.some(p => p.id === t.id))]);
+      setNextCursor(res.data.nextCursor);
+    } catch (err) {
+      console.error(err);
+    } finally {
+      loadingMoreRef.current = false;
+      setLoadingMore(false);
+    }
+  };
+
   const handleCreateTask = async (e: React.FormEvent) => {
     e.preventDefault();
     try {
       await taskApi.create(newTask);
       setNewTask({ title: '', description: '', status: TaskStatus.TODO, priority: Priority.MEDIUM });
       setShowTaskForm(false);
-      loadData();
     } catch (err) {
       alert('Failed to create task');
     }
@@ -66,7 +225,6 @@ function App() {
       await userApi.create(newUser);
       setNewUser({ name: '', email: '' });
       setShowUserForm(false);
-      loadData();
     } catch (err) {
       alert('Failed to create user');
     }
@@ -78,18 +236,22 @@ function App() {
       await projectApi.create(newProject);
       setNewProject({ name: '', description: '' });
       setShowProjectForm(false);
-      loadData();
     } catch (err) {
       alert('Failed to create project');
     }
   };
 
-  const handleStatusChange = async (taskId: number, newStatus: TaskStatus) => {
+  const handleStatusChange = async (task: Task, newStatus: TaskStatus) => {
     try {
-      await taskApi.updateStatus(taskId, newStatus);
-      loadData();
+      await taskApi.updateStatus(task.id!, newStatus, task.status);
     } catch (err) {
-      alert('Failed to update task status');
+      if (axios.isAxiosError(err) && err.response?.status === 409) {
+        alert('Task status was changed by someone else or that move is not allowed');
+        const fresh = await taskApi.getById(task.id!);
+        setTasks(prev => prev.map(t => t.id === fresh.data.id ? fresh.data : t));
+      } else {
+        alert('Failed to update task status');
+      }
     }
   };
 
@@ -97,24 +259,19 @@ function App() {
     if (window.confirm('Delete this task?')) {
       try {
         await taskApi.delete(taskId);
-        loadData();
       } catch (err) {
         alert('Failed to delete task');
       }
     }
   };
 
-  const filteredTasks = tasks.filter(task => {
-    if (filterStatus && task.status !== filterStatus) return false;
-    if (filterPriority && task.priority !== filterPriority) return false;
-    return true;
-  });
-
+  // Counted server-side, so the dashboard does not depend on every task being loaded
   const stats = {
-    total: tasks.length,
-    todo: tasks.filter(t => t.status === TaskStatus.TODO).length,
-    inProgress: tasks.filter(t => t.status === TaskStatus.IN_PROGRESS).length,
-    done: tasks.filter(t => t.status === TaskStatus.DONE).length,
+    total: taskStats?.total ?? 0,
+    todo: taskStats?.byStatus.TODO ?? 0,
+    inProgress: taskStats?.byStatus.IN_PROGRESS ?? 0,
+    done: taskStats?.byStatus.DONE ?? 0,
+    overdue: taskStats?.overdue ?? 0,
   };
 
   if (loading) return <div className="loading">Loading...</div>;
@@ -137,6 +294,7 @@ function App() {
         <div className="stat-card todo"><h3>{stats.todo}</h3><p>To Do</p></div>
         <div className="stat-card in-progress"><h3>{stats.inProgress}</h3><p>In Progress</p></div>
         <div className="stat-card done"><h3>{stats.done}</h3><p>Done</p></div>
+        <div className="stat-card overdue"><h3>{stats.overdue}</h3><p>Overdue</p></div>
       </div>
 
       {showTaskForm && (
@@ -225,10 +383,10 @@ function App() {
       </div>
 
       <div className="task-list">
-        {filteredTasks.length === 0 ? (
+        {tasks.length === 0 && !nextCursor ? (
           <p className="no-tasks">No tasks found. Create one!</p>
         ) : (
-          filteredTasks.map(task => (
+          tasks.map(task => (
             <div key={task.id} className={`task-card ${task.status.toLowerCase()}`}>
               <div className="task-header">
                 <h3>{task.title}</h3>
@@ -238,10 +396,12 @@ function App() {
               <div className="task-meta">
                 {task.assignedTo && <span>👤 {task.assignedTo.name}</span>}
                 {task.project && <span>📁 {task.project.name}</span>}
+                {dueMarks[task.id!]?.change === 'OVERDUE' && <span className="due overdue">⚠️ Overdue</span>}
+                {dueMarks[task.id!]?.change === 'DUE_SOON' && <span className="due due-soon">⏰ Due soon</span>}
               </div>
               <div className="task-actions">
-                <select value={task.status} onChange={e => handleStatusChange(task.id!, e.target.value as TaskStatus)}>
-                  <option value={TaskStatus.TODO}>To Do</option>
+                <select value={task.status} onChange={e => handleStatusChange(task, e.target.value as TaskStatus)}>
+                  <option value={TaskStatus.TODO} disabled={task.status === TaskStatus.DONE}>To Do</option>
                   <option value={TaskStatus.IN_PROGRESS}>In Progress</option>
                   <option value={TaskStatus.DONE}>Done</option>
                 </select>
@@ -251,6 +411,14 @@ function App() {
           ))
         )}
       </div>
+
+      {nextCursor && (
+        <div className="load-more" ref={sentinelRef}>
+          <button onClick={loadMoreTasks} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load more'}
+          </button>
+        </div>
+      )}
     </div>
   );
 }
@@ -1,22 +1,28 @@
 import axios from 'axios';
-import type { User, Project, Task } from '../types';
-import { TaskStatus, Priority } from '../types';
+import type { User, Project, Task, CursorPage, TaskPageQuery, TaskStats, ChangeNotice } from '../types';
+import { TaskStatus } from '../types';
 
 const API_BASE_URL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080/api';
 
 const api = axios.create({
   baseURL: API_BASE_URL,
+  // Sends the read-your-writes cookie, so reads right after a write see it even with a read replica
+  withCredentials: true,
   headers: {
     'Content-Type': 'application/json',
   },
 });
 
+// RFC 7396: only the fields sent are changed, null clears a field
+const mergePatch = { headers: { 'Content-Type': 'application/merge-patch+json' } };
+
 // User API
 export const userApi = {
   getAll: () => api.get<User[]>('/users'),
   getById: (id: number) => api.get<User>(`/users/${id}`),
   create: (user: User) => api.post<User>('/users', user),
   update: (id: number, user: User) => api.put<User>(`/users/${id}`, user),
+  patch: (id: number, changes: Partial<User>) => api.patch<User>(`/users/${id}`, changes, mergePatch),
   delete: (id: number) => api.delete(`/users/${id}`),
 };
 
@@ -25,27 +31,52 @@ export const projectApi = {
   getAll: () => api.get<Project[]>('/projects'),
   getById: (id: number) => api.get<Project>(`/projects/${id}`),
   getByUserId: (userId: number) => api.get<Project[]>(`/projects/user/${userId}`),
+  getStats: (id: number) => api.get<TaskStats>(`/projects/${id}/stats`),
   create: (project: Project) => api.post<Project>('/projects', project),
   update: (id: number, project: Project) => api.put<Project>(`/projects/${id}`, project),
+  patch: (id: number, changes: Partial<Project>) => api.patch<Project>(`/projects/${id}`, changes, mergePatch),
   delete: (id: number) => api.delete(`/projects/${id}`),
 };
 
 // Task API
+const pageParams = ({ status, priority, after, limit, sort, fields }: TaskPageQuery) => {
+  const params = new URLSearchParams();
+  if (status) params.append('status', status);
+  if (priority) params.append('priority', priority);
+  if (after) params.append('after', after);
+  if (limit) params.append('limit', String(limit));
+  if (sort) params.append('sort', sort);
+  if (fields?.length) params.append('fields', fields.join(','));
+  return params;
+};
+
 export const taskApi = {
-  getAll: (status?: TaskStatus, priority?: Priority) => {
-    const params = new URLSearchParams();
-    if (status) params.append('status', status);
-    if (priority) params.append('priority', priority);
-    return api.get<Task[]>('/tasks', { params });
-  },
+  getPage: (query: TaskPageQuery = {}) =>
+    api.get<CursorPage<Task>>('/tasks', { params: pageParams(query) }),
   getById: (id: number) => api.get<Task>(`/tasks/${id}`),
-  getByUserId: (userId: number) => api.get<Task[]>(`/tasks/user/${userId}`),
-  getByProjectId: (projectId: number) => api.get<Task[]>(`/tasks/project/${projectId}`),
+  getStats: () => api.get<TaskStats>('/tasks/stats'),
+  getPageByUserId: (userId: number, query: TaskPageQuery = {}) =>
+    api.get<CursorPage<Task>>(`/tasks/user/${userId}`, { params: pageParams(query) }),
+  getPageByProjectId: (projectId: number, query: TaskPageQuery = {}) =>
+    api.get<CursorPage<Task>>(`/tasks/project/${projectId}`, { params: pageParams(query) }),
   create: (task: Task) => api.post<Task>('/tasks', task),
   update: (id: number, task: Task) => api.put<Task>(`/tasks/${id}`, task),
-  updateStatus: (id: number, status: TaskStatus) =>
-    api.patch<Task>(`/tasks/${id}/status`, { status }),
+  patch: (id: number, changes: Partial<Task>) => api.patch<Task>(`/tasks/${id}`, changes, mergePatch),
+  // Fails with 409 if the task is no longer in expectedStatus or the move is not allowed
+  updateStatus: (id: number, status: TaskStatus, expectedStatus?: TaskStatus) =>
+    api.patch<Task>(`/tasks/${id}/status`, { status, expectedStatus }),
   delete: (id: number) => api.delete(`/tasks/${id}`),
 };
 
+// Change feed; EventSource reconnects on its own and resumes via Last-Event-ID.
+// onReset means events were missed and everything should be reloaded.
+export const changeApi = {
+  subscribe: (onChange: (notice: ChangeNotice) => void, onReset: () => void) => {
+    const source = new EventSource(`${API_BASE_URL}/changes/stream`);
+    source.addEventListener('change', (e) => onChange(JSON.parse((e as MessageEvent).data)));
+    source.addEventListener('reset', () => onReset());
+    return () => source.close();
+  },
+};
+
 export default api;
\ No newline at end of file
@@ -41,9 +41,52 @@ export interface Task {
   createdAt?: string;
 }
 
+export type TaskSort = 'createdAt' | 'dueDate' | 'priority';
+
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+}
+
+export interface TaskPageQuery {
+  status?: TaskStatus;
+  priority?: Priority;
+  after?: string;
+  limit?: number;
+  sort?: TaskSort;
+  // Sparse fieldset, e.g. ['id', 'title', 'assignedTo.name']; items then only carry those fields
+  fields?: string[];
+}
+
 export interface TaskStats {
   total: number;
-  todo: number;
-  inProgress: number;
-  done: number;
-}
\ No newline at end of file
+  byStatus: Record<TaskStatus, number>;
+  byPriority: Record<Priority, number>;
+  byStatusAndPriority: Record<TaskStatus, Record<Priority, number>>;
+  overdue: number;
+}
+
+export type EntityType = 'TASK' | 'PROJECT' | 'USER';
+// Raised by the passing of time (or a change moving the due date there) rather than by a write
+export type DueChange = 'DUE_SOON' | 'OVERDUE';
+export type ChangeType = 'CREATED' | 'UPDATED' | 'DELETED' | DueChange;
+
+export interface TaskSnapshot {
+  id: number;
+  title: string;
+  description: string | null;
+  status: TaskStatus;
+  priority: Priority;
+  dueDate: string | null;
+  assignedToId: number | null;
+  projectId: number | null;
+  version: number;
+}
+
+// Pushed by GET /api/changes/stream; task notices carry the new values, others only the id
+export interface ChangeNotice {
+  type: EntityType;
+  id: number;
+  change: ChangeType;
+  task: TaskSnapshot | null;
+}